@@ -2,12 +2,22 @@ package ar.edu.itba.pod;
 
 import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
 import ar.edu.itba.pod.models.ElectionState;
+import ar.edu.itba.pod.models.Province;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.Map;
 
 public interface ManagementService extends Remote {
     void openElection() throws RemoteException, InvalidElectionStateException;
     void closeElection() throws RemoteException, InvalidElectionStateException;
     ElectionState getElectionState() throws RemoteException;
+
+    /**
+     * Registers the catalogue of tables before the election starts, so that they are not created on their first vote
+     * @param tables Map of table id to the province of the table
+     * @throws RemoteException
+     * @throws InvalidElectionStateException if the election is not PENDING
+     */
+    void registerTables(Map<Integer, Province> tables) throws RemoteException, InvalidElectionStateException;
 }
@@ -0,0 +1,14 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.ServerMetrics;
+
+import java.rmi.Remote;
+import java.rmi.RemoteException;
+
+public interface MetricsService extends Remote {
+    /**
+     * Obtains the current metrics of the server, can be called in any state of the election
+     * @return Snapshot of the metrics
+     */
+    ServerMetrics getMetrics() throws RemoteException;
+}
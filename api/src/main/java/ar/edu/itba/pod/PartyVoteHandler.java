@@ -4,7 +4,20 @@ import ar.edu.itba.pod.models.Vote;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 
 public interface PartyVoteHandler extends Remote {
     void onPartyVote(Vote vote) throws RemoteException;
+
+    /**
+     * Receives many votes in a single call, in the order they were emitted
+     * The server delivers the notifications this way, handlers that do not override it get one onPartyVote per vote
+     * @param votes Votes for the party on the table
+     * @throws RemoteException
+     */
+    default void onPartyVotes(List<Vote> votes) throws RemoteException {
+        for (Vote vote : votes) {
+            this.onPartyVote(vote);
+        }
+    }
 }
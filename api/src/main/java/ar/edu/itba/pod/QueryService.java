@@ -13,4 +13,14 @@ public interface QueryService extends Remote {
     ElectionResults getNationalResults() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException;
     ElectionResults getProvinceResults(Province province) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException;
     ElectionResults getTableResults(Integer tableID) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException;
+
+    /**
+     * Obtains the STAR results with the votes emitted so far, the final results once the election is closed
+     */
+    ElectionResults getProvisionalNationalResults() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException;
+
+    /**
+     * Obtains the SPAV results of the province with the votes emitted so far, the final results once the election is closed
+     */
+    ElectionResults getProvisionalProvinceResults(Province province) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException;
 }
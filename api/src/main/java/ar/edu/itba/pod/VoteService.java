@@ -2,9 +2,11 @@ package ar.edu.itba.pod;
 
 import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
 import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.models.VoteResult;
 
 import java.rmi.Remote;
 import java.rmi.RemoteException;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 
 public interface VoteService extends Remote {
@@ -17,4 +19,12 @@ public interface VoteService extends Remote {
      * @throws InterruptedException
      */
     void emitVote(Vote vote) throws RemoteException, ExecutionException, InterruptedException, InvalidElectionStateException;
+
+    /**
+     * Exposed service method to emit many votes in a single remote call
+     * @param votes Votes to be emitted
+     * @return List with the result of each vote, in the same order as the given votes
+     * @throws RemoteException
+     */
+    List<VoteResult> emitVotes(List<Vote> votes) throws RemoteException;
 }
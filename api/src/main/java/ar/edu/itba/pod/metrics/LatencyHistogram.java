@@ -0,0 +1,81 @@
+package ar.edu.itba.pod.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies in microseconds that many threads can record to without locking.
+ * Buckets are log-linear: values under 16us have their own bucket, larger ones are grouped
+ * in 16 buckets per power of two, so every percentile is off by less than 1/16 of its value.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (Long.SIZE - SUB_BUCKET_BITS + 1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    /**
+     * Records a successful operation
+     * @param micros Latency of the operation
+     */
+    public void record(long micros) {
+        this.counts.incrementAndGet(bucket(Math.max(0, micros)));
+        this.total.increment();
+    }
+
+    /**
+     * Counts an operation that failed, its latency is not recorded so it does not skew the percentiles
+     */
+    public void recordError() {
+        this.errors.increment();
+    }
+
+    /**
+     * @return Amount of successful operations, the ones in the percentiles
+     */
+    public long getCount() {
+        return total.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Latency in microseconds under which that percentage of the operations are, 0 if nothing was recorded
+     */
+    public long getPercentile(double percentile) {
+        long count = this.getCount();
+        if (count == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += this.counts.get(i);
+            if (seen >= target) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS * (exponent - SUB_BUCKET_BITS + 1) + subBucket;
+    }
+
+    /**
+     * @return Largest value that falls in the bucket
+     */
+    static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long subBucket = bucket % SUB_BUCKETS;
+        long lowerBound = (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+        return lowerBound + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+}
@@ -5,7 +5,9 @@ import java.io.Serializable;
 public abstract class ElectionResults implements Serializable {
     private static final long serialVersionUID = 1920965438822291259L;
 
-    protected VotingType votingType;
+    // Not serialized, every kind of results sets it when created
+    protected transient VotingType votingType;
+
     public VotingType getVotingType() {
         return votingType;
     }
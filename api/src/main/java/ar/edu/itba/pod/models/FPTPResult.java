@@ -2,29 +2,60 @@ package ar.edu.itba.pod.models;
 
 import org.apache.commons.lang3.tuple.MutablePair;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.TreeSet;
 
-public class FPTPResult extends ElectionResults {
+public class FPTPResult extends ElectionResults implements Externalizable {
     private static final long serialVersionUID = -2379609868942776490L;
 
-    private TreeSet<MutablePair<Party, Double>> fptpResults;
+    // Percentage of each party, indexed by the party ordinal
+    private double[] percentages;
     private ElectionState electionState;
 
-    public FPTPResult (TreeSet<MutablePair<Party, Double>> fptpResults, ElectionState electionState) {
-        this.fptpResults = fptpResults;
+    /**
+     * Constructor needed for the deserialization of the results, should not be used otherwise
+     */
+    public FPTPResult() {
+        this.votingType = VotingType.FPTP;
+    }
+
+    public FPTPResult (double[] percentages, ElectionState electionState) {
+        this.percentages = percentages;
         this.votingType = VotingType.FPTP;
         this.electionState = electionState;
     }
 
+    /**
+     * @return Results sorted by percentage, built every time they are requested
+     */
     public TreeSet<MutablePair<Party, Double>> getFptpResults() {
-        return fptpResults;
+        return PartyResults.sorted(percentages);
+    }
+
+    public double getPercentage(Party party) {
+        return percentages[party.ordinal()];
     }
 
     public Party getWinner() {
-        return fptpResults.first().getKey();
+        return PartyResults.first(percentages);
     }
 
     public ElectionState getElectionState() {
         return electionState;
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(electionState.ordinal());
+        PartyResults.write(out, percentages);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        electionState = ElectionState.values()[in.readByte()];
+        percentages = PartyResults.readDoubles(in);
+    }
 }
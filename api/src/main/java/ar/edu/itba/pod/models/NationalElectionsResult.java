@@ -2,31 +2,62 @@ package ar.edu.itba.pod.models;
 
 import org.apache.commons.lang3.tuple.MutablePair;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.TreeSet;
 
-public class NationalElectionsResult extends ElectionResults {
+public class NationalElectionsResult extends ElectionResults implements Externalizable {
     private static final long serialVersionUID = 3439625826120089417L;
-    private TreeSet<MutablePair<Party, Long>> scoringRoundResults;
-    private TreeSet<MutablePair<Party, Double>> automaticRunoffResults;
+    // Indexed by the party ordinal, parties without a result are negative in the scoring round and NaN in the runoff
+    private long[] scoringRoundResults;
+    private double[] automaticRunoffResults;
     private Party winner;
 
-    public NationalElectionsResult(TreeSet<MutablePair<Party, Long>> scoring, TreeSet<MutablePair<Party, Double>> runoff, Party winner) {
+    /**
+     * Constructor needed for the deserialization of the results, should not be used otherwise
+     */
+    public NationalElectionsResult() {
+        this.votingType = VotingType.NATIONAL;
+    }
+
+    public NationalElectionsResult(long[] scoring, double[] runoff, Party winner) {
         this.scoringRoundResults = scoring;
         this.automaticRunoffResults = runoff;
         this.winner = winner;
         this.votingType = VotingType.NATIONAL;
     }
 
+    /**
+     * @return Scoring round results sorted by score, built every time they are requested
+     */
     public TreeSet<MutablePair<Party, Long>> getScoringRoundResults() {
-        return scoringRoundResults;
+        return PartyResults.sorted(scoringRoundResults);
     }
 
+    /**
+     * @return Automatic runoff results sorted by percentage, built every time they are requested
+     */
     public TreeSet<MutablePair<Party, Double>> getAutomaticRunoffResults() {
-        return automaticRunoffResults;
+        return PartyResults.sorted(automaticRunoffResults);
     }
 
     public Party getWinner() {
         return winner;
     }
 
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        PartyResults.write(out, scoringRoundResults);
+        PartyResults.write(out, automaticRunoffResults);
+        PartyResults.writeParty(out, winner);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        scoringRoundResults = PartyResults.readLongs(in);
+        automaticRunoffResults = PartyResults.readDoubles(in);
+        winner = PartyResults.readParty(in);
+    }
 }
@@ -0,0 +1,151 @@
+package ar.edu.itba.pod.models;
+
+import ar.edu.itba.pod.comparators.DoubleComparator;
+import ar.edu.itba.pod.comparators.LongComparator;
+import org.apache.commons.lang3.tuple.MutablePair;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Helpers for results stored as arrays indexed by the party ordinal.
+ * A party without a result (not voted, or already elected in a previous round) is stored as NaN
+ * for percentages and approvals, and as a negative value for scores. Results are only sorted when
+ * they are read, with the same order the comparators give.
+ */
+public final class PartyResults {
+    private static final int PARTIES = Party.values().length;
+
+    private PartyResults() { }
+
+    /**
+     * @return Array without results for any party
+     */
+    public static double[] emptyDoubles() {
+        double[] results = new double[PARTIES];
+        Arrays.fill(results, Double.NaN);
+        return results;
+    }
+
+    /**
+     * @return Array without results for any party
+     */
+    public static long[] emptyLongs() {
+        long[] results = new long[PARTIES];
+        Arrays.fill(results, -1);
+        return results;
+    }
+
+    /**
+     * @param results Map with the result of each party, parties missing have no result
+     * @return Array with the results, indexed by the party ordinal
+     */
+    public static double[] fromMap(Map<Party, Double> results) {
+        double[] array = emptyDoubles();
+        results.forEach((party, value) -> {
+            if (value != null) array[party.ordinal()] = value;
+        });
+        return array;
+    }
+
+    /**
+     * @param results Results indexed by the party ordinal
+     * @return Sorted results, only of the parties that have one
+     */
+    public static TreeSet<MutablePair<Party, Double>> sorted(double[] results) {
+        TreeSet<MutablePair<Party, Double>> sorted = new TreeSet<>(new DoubleComparator());
+        for (Party party : Party.values()) {
+            if (!Double.isNaN(results[party.ordinal()])) sorted.add(new MutablePair<>(party, results[party.ordinal()]));
+        }
+        return sorted;
+    }
+
+    /**
+     * @param results Results indexed by the party ordinal
+     * @return Sorted results, only of the parties that have one
+     */
+    public static TreeSet<MutablePair<Party, Long>> sorted(long[] results) {
+        TreeSet<MutablePair<Party, Long>> sorted = new TreeSet<>(new LongComparator());
+        for (Party party : Party.values()) {
+            if (results[party.ordinal()] >= 0) sorted.add(new MutablePair<>(party, results[party.ordinal()]));
+        }
+        return sorted;
+    }
+
+    /**
+     * Finds the first party without sorting, the one with the largest result and the smallest description on ties
+     * @param results Results indexed by the party ordinal
+     * @return First party, null if no party has a result
+     */
+    public static Party first(double[] results) {
+        Party first = null;
+        for (Party party : Party.values()) {
+            double value = results[party.ordinal()];
+            if (Double.isNaN(value)) continue;
+            if (first == null || value > results[first.ordinal()]
+                    || (value == results[first.ordinal()] && party.getDescription().compareTo(first.getDescription()) < 0)) {
+                first = party;
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Writes the results as a mask of the parties with a result followed by their values
+     */
+    static void write(ObjectOutput out, double[] results) throws IOException {
+        int mask = 0;
+        for (int i = 0; i < PARTIES; i++) {
+            if (!Double.isNaN(results[i])) mask |= 1 << i;
+        }
+        out.writeByte(mask);
+        for (int i = 0; i < PARTIES; i++) {
+            if ((mask & (1 << i)) != 0) out.writeDouble(results[i]);
+        }
+    }
+
+    static double[] readDoubles(ObjectInput in) throws IOException {
+        double[] results = emptyDoubles();
+        int mask = in.readUnsignedByte();
+        for (int i = 0; i < PARTIES; i++) {
+            if ((mask & (1 << i)) != 0) results[i] = in.readDouble();
+        }
+        return results;
+    }
+
+    /**
+     * Writes the results as a mask of the parties with a result followed by their values
+     */
+    static void write(ObjectOutput out, long[] results) throws IOException {
+        int mask = 0;
+        for (int i = 0; i < PARTIES; i++) {
+            if (results[i] >= 0) mask |= 1 << i;
+        }
+        out.writeByte(mask);
+        for (int i = 0; i < PARTIES; i++) {
+            if ((mask & (1 << i)) != 0) out.writeLong(results[i]);
+        }
+    }
+
+    static long[] readLongs(ObjectInput in) throws IOException {
+        long[] results = emptyLongs();
+        int mask = in.readUnsignedByte();
+        for (int i = 0; i < PARTIES; i++) {
+            if ((mask & (1 << i)) != 0) results[i] = in.readLong();
+        }
+        return results;
+    }
+
+    static void writeParty(ObjectOutput out, Party party) throws IOException {
+        out.writeByte(party == null ? -1 : party.ordinal());
+    }
+
+    static Party readParty(ObjectInput in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : Party.values()[ordinal];
+    }
+}
@@ -0,0 +1,257 @@
+package ar.edu.itba.pod.models;
+
+import ar.edu.itba.pod.metrics.LatencyHistogram;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the metrics of the server.
+ * Latencies and lock waits are in microseconds, counters are totals since the server started.
+ */
+public class ServerMetrics implements Serializable {
+    private static final long serialVersionUID = 3152496023419836513L;
+
+    private ElectionState electionState;
+    private long uptimeMillis;
+
+    // Ingest
+    private long acceptedVotes;
+    private long rejectedVotes;
+    private double votesPerSecond;
+    private Latency emitVoteLatency;
+    private Latency emitVotesLatency;
+
+    // Waits to acquire the lock of the election state, which also guards the audit registrations and the table registration
+    private long stateLockAcquisitions;
+    private long stateLockWaitMicros;
+    private long stateLockMaxWaitMicros;
+
+    // Audit notifications
+    private long auditQueueDepth;
+    private long auditDelivered;
+    private long auditDropped;
+    private long auditFailed;
+    private long auditEvicted;
+
+    // Retained state
+    private long tables;
+    private long retainedBallots;
+    private long distinctBallots;
+    private long estimatedHeapBytes;
+
+    // -1 until the elections are closed
+    private long closeMillis = -1;
+
+    public ElectionState getElectionState() {
+        return electionState;
+    }
+
+    public void setElectionState(ElectionState electionState) {
+        this.electionState = electionState;
+    }
+
+    public long getUptimeMillis() {
+        return uptimeMillis;
+    }
+
+    public void setUptimeMillis(long uptimeMillis) {
+        this.uptimeMillis = uptimeMillis;
+    }
+
+    public long getAcceptedVotes() {
+        return acceptedVotes;
+    }
+
+    public void setAcceptedVotes(long acceptedVotes) {
+        this.acceptedVotes = acceptedVotes;
+    }
+
+    public long getRejectedVotes() {
+        return rejectedVotes;
+    }
+
+    public void setRejectedVotes(long rejectedVotes) {
+        this.rejectedVotes = rejectedVotes;
+    }
+
+    /**
+     * @return Votes accepted per second over the last window of at least a second measured by the server
+     */
+    public double getVotesPerSecond() {
+        return votesPerSecond;
+    }
+
+    public void setVotesPerSecond(double votesPerSecond) {
+        this.votesPerSecond = votesPerSecond;
+    }
+
+    public Latency getEmitVoteLatency() {
+        return emitVoteLatency;
+    }
+
+    public void setEmitVoteLatency(Latency emitVoteLatency) {
+        this.emitVoteLatency = emitVoteLatency;
+    }
+
+    public Latency getEmitVotesLatency() {
+        return emitVotesLatency;
+    }
+
+    public void setEmitVotesLatency(Latency emitVotesLatency) {
+        this.emitVotesLatency = emitVotesLatency;
+    }
+
+    public long getStateLockAcquisitions() {
+        return stateLockAcquisitions;
+    }
+
+    public void setStateLockAcquisitions(long stateLockAcquisitions) {
+        this.stateLockAcquisitions = stateLockAcquisitions;
+    }
+
+    public long getStateLockWaitMicros() {
+        return stateLockWaitMicros;
+    }
+
+    public void setStateLockWaitMicros(long stateLockWaitMicros) {
+        this.stateLockWaitMicros = stateLockWaitMicros;
+    }
+
+    public long getStateLockMaxWaitMicros() {
+        return stateLockMaxWaitMicros;
+    }
+
+    public void setStateLockMaxWaitMicros(long stateLockMaxWaitMicros) {
+        this.stateLockMaxWaitMicros = stateLockMaxWaitMicros;
+    }
+
+    /**
+     * @return Notifications waiting to be delivered to the audit officers
+     */
+    public long getAuditQueueDepth() {
+        return auditQueueDepth;
+    }
+
+    public void setAuditQueueDepth(long auditQueueDepth) {
+        this.auditQueueDepth = auditQueueDepth;
+    }
+
+    public long getAuditDelivered() {
+        return auditDelivered;
+    }
+
+    public void setAuditDelivered(long auditDelivered) {
+        this.auditDelivered = auditDelivered;
+    }
+
+    public long getAuditDropped() {
+        return auditDropped;
+    }
+
+    public void setAuditDropped(long auditDropped) {
+        this.auditDropped = auditDropped;
+    }
+
+    public long getAuditFailed() {
+        return auditFailed;
+    }
+
+    public void setAuditFailed(long auditFailed) {
+        this.auditFailed = auditFailed;
+    }
+
+    public long getAuditEvicted() {
+        return auditEvicted;
+    }
+
+    public void setAuditEvicted(long auditEvicted) {
+        this.auditEvicted = auditEvicted;
+    }
+
+    public long getTables() {
+        return tables;
+    }
+
+    public void setTables(long tables) {
+        this.tables = tables;
+    }
+
+    /**
+     * @return Ballots counted for the national election
+     */
+    public long getRetainedBallots() {
+        return retainedBallots;
+    }
+
+    public void setRetainedBallots(long retainedBallots) {
+        this.retainedBallots = retainedBallots;
+    }
+
+    /**
+     * @return Distinct ballots of the national election, ballots are stored once with their amount of votes
+     */
+    public long getDistinctBallots() {
+        return distinctBallots;
+    }
+
+    public void setDistinctBallots(long distinctBallots) {
+        this.distinctBallots = distinctBallots;
+    }
+
+    /**
+     * @return Rough estimate of the heap used by the tables and the tallies
+     */
+    public long getEstimatedHeapBytes() {
+        return estimatedHeapBytes;
+    }
+
+    public void setEstimatedHeapBytes(long estimatedHeapBytes) {
+        this.estimatedHeapBytes = estimatedHeapBytes;
+    }
+
+    /**
+     * @return Time it took to compute the results when closing, -1 if the elections are not closed
+     */
+    public long getCloseMillis() {
+        return closeMillis;
+    }
+
+    public void setCloseMillis(long closeMillis) {
+        this.closeMillis = closeMillis;
+    }
+
+    /**
+     * Summary of the latencies of an operation
+     */
+    public static class Latency implements Serializable {
+        private static final long serialVersionUID = -2318745076113460291L;
+
+        private final long count;
+        private final long p50Micros;
+        private final long p99Micros;
+        private final long p999Micros;
+
+        public Latency(LatencyHistogram histogram) {
+            this.count = histogram.getCount();
+            this.p50Micros = histogram.getPercentile(50);
+            this.p99Micros = histogram.getPercentile(99);
+            this.p999Micros = histogram.getPercentile(99.9);
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getP50Micros() {
+            return p50Micros;
+        }
+
+        public long getP99Micros() {
+            return p99Micros;
+        }
+
+        public long getP999Micros() {
+            return p999Micros;
+        }
+    }
+}
@@ -2,23 +2,32 @@ package ar.edu.itba.pod.models;
 
 import org.apache.commons.lang3.tuple.MutablePair;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.TreeSet;
 
-public class StateElectionsResult extends ElectionResults{
+public class StateElectionsResult extends ElectionResults implements Externalizable {
     private static final long serialVersionUID = -3568878105168093744L;
-    private final Province province;
-    private final TreeSet<MutablePair<Party, Double>> firstRound;
-    private final TreeSet<MutablePair<Party, Double>> secondRound;
-    private final TreeSet<MutablePair<Party, Double>> thirdRound;
+    private static final int ROUNDS = 3;
+
+    private Province province;
+    // Approvals of each round indexed by the party ordinal, NaN for parties elected in previous rounds
+    private double[][] rounds;
     // Winners are in order, index 0 -> first round winner, ...
-    private final Party[] winners;
+    private Party[] winners;
 
-    public StateElectionsResult(Province province, TreeSet<MutablePair<Party, Double>> firstRound,
-                                TreeSet<MutablePair<Party, Double>> secondRound, TreeSet<MutablePair<Party, Double>> thirdRound, Party[] winners) {
+    /**
+     * Constructor needed for the deserialization of the results, should not be used otherwise
+     */
+    public StateElectionsResult() {
+        this.votingType = VotingType.STATE;
+    }
+
+    public StateElectionsResult(Province province, double[] firstRound, double[] secondRound, double[] thirdRound, Party[] winners) {
         this.province = province;
-        this.firstRound = firstRound;
-        this.secondRound = secondRound;
-        this.thirdRound = thirdRound;
+        this.rounds = new double[][]{firstRound, secondRound, thirdRound};
         this.winners = winners;
         this.votingType = VotingType.STATE;
     }
@@ -27,19 +36,54 @@ public class StateElectionsResult extends ElectionResults{
         return province;
     }
 
+    /**
+     * @return true if there were votes in the province
+     */
+    public boolean hasVotes() {
+        return PartyResults.first(rounds[0]) != null;
+    }
+
+    /**
+     * Results of the rounds are sorted by approval, built every time they are requested
+     */
     public TreeSet<MutablePair<Party, Double>> getFirstRound() {
-        return firstRound;
+        return PartyResults.sorted(rounds[0]);
     }
 
     public TreeSet<MutablePair<Party, Double>> getSecondRound() {
-        return secondRound;
+        return PartyResults.sorted(rounds[1]);
     }
 
     public TreeSet<MutablePair<Party, Double>> getThirdRound() {
-        return thirdRound;
+        return PartyResults.sorted(rounds[2]);
     }
 
     public Party[] getWinners() {
         return winners;
     }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(province.ordinal());
+        for (double[] round : rounds) {
+            PartyResults.write(out, round);
+        }
+        out.writeByte(winners.length);
+        for (Party winner : winners) {
+            PartyResults.writeParty(out, winner);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        province = Province.values()[in.readByte()];
+        rounds = new double[ROUNDS][];
+        for (int i = 0; i < ROUNDS; i++) {
+            rounds[i] = PartyResults.readDoubles(in);
+        }
+        winners = new Party[in.readByte()];
+        for (int i = 0; i < winners.length; i++) {
+            winners[i] = PartyResults.readParty(in);
+        }
+    }
 }
@@ -1,17 +1,44 @@
 package ar.edu.itba.pod.models;
 
-import java.io.Serializable;
-import java.util.List;
-import java.util.Map;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.*;
 
-public class Vote implements Serializable {
-    private static final long serialVersionUID = -4933990121743044415L;
+/**
+ * Vote sent from the polling stations to the server
+ * It is serialized with a compact format instead of the default java serialization:
+ *  - province and FPTP vote as ordinals
+ *  - table as an int, Integer.MIN_VALUE for a null table
+ *  - STAR vote as a mask of the voted parties followed by one byte with the score of each one (0 to 5)
+ *  - SPAV vote as a mask of the approved parties
+ * Null STAR and SPAV votes are written as a mask with every bit set, null parties or scores inside them
+ * can not be written.
+ */
+public class Vote implements Externalizable {
+    // Changed along with the format, so clients with the old format fail with an InvalidClassException
+    private static final long serialVersionUID = 5527160317340184628L;
 
-    private final Province province;
-    private final Integer table; // FIXME puede ser int -> como prefieran
-    private final Party fptpVote;
-    private final Map<Party, Long> starVote;
-    private final List<Party> spavVote;
+    // Ordinal used to represent a null enum value
+    private static final byte NULL_ORDINAL = -1;
+    // Table id used to represent a null table
+    private static final int NULL_TABLE = Integer.MIN_VALUE;
+    // Mask used to represent a null STAR or SPAV vote, parties only use the lowest bits
+    private static final int NULL_MASK = 0xFF;
+    private static final long MAX_STAR_SCORE = 5;
+
+    private Province province;
+    private Integer table; // FIXME puede ser int -> como prefieran
+    private Party fptpVote;
+    private Map<Party, Long> starVote;
+    private List<Party> spavVote;
+
+    /**
+     * Constructor needed for the deserialization of the vote, should not be used otherwise
+     */
+    public Vote() { }
 
     public Vote(Province province, Integer table, Party fptpVote, Map<Party, Long> starVote, List<Party> spavVote) {
         this.table = table;
@@ -41,6 +68,76 @@ public class Vote implements Serializable {
         return spavVote;
     }
 
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        out.writeByte(province == null ? NULL_ORDINAL : province.ordinal());
+        out.writeInt(table == null ? NULL_TABLE : table);
+        out.writeByte(fptpVote == null ? NULL_ORDINAL : fptpVote.ordinal());
+
+        // STAR vote, scores go from 0 to 5 so a byte per voted party is enough
+        if (starVote == null) {
+            out.writeByte(NULL_MASK);
+        } else {
+            int starMask = 0;
+            for (Map.Entry<Party, Long> score : starVote.entrySet()) {
+                if (score.getKey() == null) {
+                    throw new InvalidObjectException("STAR vote has a score for a null party");
+                }
+                // Checked before writing, a larger score would not fit in the byte and arrive as a different one
+                if (score.getValue() == null || score.getValue() < 0 || score.getValue() > MAX_STAR_SCORE) {
+                    throw new InvalidObjectException("Invalid STAR score " + score.getValue() + " for " + score.getKey());
+                }
+                starMask |= 1 << score.getKey().ordinal();
+            }
+            out.writeByte(starMask);
+            for (Party party : Party.values()) {
+                if ((starMask & (1 << party.ordinal())) != 0) out.writeByte(starVote.get(party).intValue());
+            }
+        }
+
+        // SPAV vote, only the approved parties matter
+        if (spavVote == null) {
+            out.writeByte(NULL_MASK);
+        } else {
+            int spavMask = 0;
+            for (Party party : spavVote) {
+                if (party == null) throw new InvalidObjectException("SPAV vote approves a null party");
+                spavMask |= 1 << party.ordinal();
+            }
+            out.writeByte(spavMask);
+        }
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        byte provinceOrdinal = in.readByte();
+        province = provinceOrdinal == NULL_ORDINAL ? null : Province.values()[provinceOrdinal];
+        int tableId = in.readInt();
+        table = tableId == NULL_TABLE ? null : tableId;
+        byte fptpOrdinal = in.readByte();
+        fptpVote = fptpOrdinal == NULL_ORDINAL ? null : Party.values()[fptpOrdinal];
+
+        int starMask = in.readUnsignedByte();
+        if (starMask == NULL_MASK) {
+            starVote = null;
+        } else {
+            starVote = new EnumMap<>(Party.class);
+            for (Party party : Party.values()) {
+                if ((starMask & (1 << party.ordinal())) != 0) starVote.put(party, (long) in.readByte());
+            }
+        }
+
+        int spavMask = in.readUnsignedByte();
+        if (spavMask == NULL_MASK) {
+            spavVote = null;
+        } else {
+            spavVote = new ArrayList<>(Integer.bitCount(spavMask));
+            for (Party party : Party.values()) {
+                if ((spavMask & (1 << party.ordinal())) != 0) spavVote.add(party);
+            }
+        }
+    }
+
     @Override
     public String toString() {
         return "Vote{" +
@@ -0,0 +1,19 @@
+package ar.edu.itba.pod.models;
+
+/**
+ * Result of the emission of a single vote
+ */
+public enum VoteResult {
+    ACCEPTED("Vote was registered"), REJECTED("Elections haven't started or have already finished"),
+    INVALID("Vote is missing a field or has a STAR score out of range");
+
+    private String description;
+
+    private VoteResult(String s){
+        this.description = s;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
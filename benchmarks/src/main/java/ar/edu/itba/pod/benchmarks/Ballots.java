@@ -0,0 +1,46 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+
+import java.util.*;
+
+/**
+ * Random votes for the benchmarks, always the same ones for a given seed so runs can be compared
+ */
+public class Ballots {
+    public static final int FIRST_TABLE = 1000;
+
+    private Ballots() { }
+
+    /**
+     * @param quantity Amount of votes
+     * @param tables Amount of different tables the votes are emitted on
+     * @param seed Seed of the votes
+     * @return Random votes, each table is always on the same province
+     */
+    public static List<Vote> create(int quantity, int tables, long seed) {
+        Random random = new Random(seed);
+        Party[] parties = Party.values();
+        Province[] provinces = Province.values();
+
+        List<Vote> votes = new ArrayList<>(quantity);
+        for (int i = 0; i < quantity; i++) {
+            Map<Party, Long> starVote = new EnumMap<>(Party.class);
+            List<Party> spavVote = new ArrayList<>();
+            for (Party party : parties) {
+                if (random.nextInt(3) == 0) {
+                    starVote.put(party, (long) random.nextInt(6));
+                }
+                if (random.nextInt(3) == 0) {
+                    spavVote.add(party);
+                }
+            }
+            int table = random.nextInt(tables);
+            votes.add(new Vote(provinces[table % provinces.length], FIRST_TABLE + table,
+                    parties[random.nextInt(parties.length)], starVote, spavVote));
+        }
+        return votes;
+    }
+}
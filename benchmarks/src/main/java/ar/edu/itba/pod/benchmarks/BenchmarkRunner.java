@@ -0,0 +1,30 @@
+package ar.edu.itba.pod.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks once for each amount of threads, so contention on the tallies shows up in the numbers.
+ * Run as follows:
+ * $>java -Dthreads=1,2,4,8 [ -Dinclude=regex ] [ -Dresults=results.json ] -jar benchmarks.jar
+ */
+public class BenchmarkRunner {
+    public static void main(String[] args) throws RunnerException {
+        String include = System.getProperty("include", ".*Benchmark.*");
+        String results = System.getProperty("results");
+
+        for (String threads : System.getProperty("threads", "1,2,4,8").split(",")) {
+            ChainedOptionsBuilder options = new OptionsBuilder()
+                    .include(include)
+                    .threads(Integer.parseInt(threads.trim()));
+            if (results != null) {
+                // One results file for each amount of threads
+                options.resultFormat(ResultFormatType.JSON).result(threads.trim() + "-threads-" + results);
+            }
+            new Runner(options.build()).run();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.server.concurrency.CloseElectionTask;
+import ar.edu.itba.pod.server.models.NationalElection;
+import ar.edu.itba.pod.server.models.StateElection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Computing the results of both elections when closing, one after the other and as fork-join tasks.
+ * The election is only closed once, so the numbers that matter are the ones with -Dthreads=1.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CloseElectionBenchmark {
+    private static final int DISTINCT_VOTES = 100_000;
+
+    @Param({"1000000", "10000000"})
+    public int ballots;
+
+    private NationalElection nationalElection;
+    private StateElection stateElection;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Vote> votes = Ballots.create(DISTINCT_VOTES, 1000, 4);
+        this.nationalElection = new NationalElection();
+        this.stateElection = new StateElection();
+        for (int i = 0; i < this.ballots; i++) {
+            Vote vote = votes.get(i % votes.size());
+            this.nationalElection.emitVote(vote.getStarVote());
+            this.stateElection.emitVote(Province.values()[i % Province.values().length], vote.getSpavVote());
+        }
+    }
+
+    @Benchmark
+    public void serialClose() {
+        this.nationalElection.computeNationalElectionResults();
+        this.stateElection.computeStateElectionResults();
+    }
+
+    @Benchmark
+    public void forkJoinClose() {
+        ForkJoinPool.commonPool().invoke(new CloseElectionTask(this.nationalElection, this.stateElection));
+    }
+}
@@ -0,0 +1,23 @@
+package ar.edu.itba.pod.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Position of each benchmark thread on the pregenerated votes, so threads do not walk them in lockstep
+ */
+@State(Scope.Thread)
+public class Cursor {
+    private int position = ThreadLocalRandom.current().nextInt(1 << 16);
+
+    /**
+     * @param size Amount of elements
+     * @return Next position, between 0 and size - 1
+     */
+    public int next(int size) {
+        if (++this.position >= size) this.position = 0;
+        return this.position;
+    }
+}
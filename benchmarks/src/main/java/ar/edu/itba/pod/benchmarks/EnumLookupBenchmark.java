@@ -0,0 +1,42 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookup of parties and provinces by name, compared with the lookup of the enum itself
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EnumLookupBenchmark {
+    private final String[] parties = {"TIGER", "LEOPARD", "LYNX", "TURTLE", "OWL", "JACKALOPE", "BUFFALO", "owl"};
+    private final String[] provinces = {"JUNGLE", "SAVANNAH", "TUNDRA", "tundra"};
+    private int position;
+
+    @Benchmark
+    public Party partyFromValue() {
+        return Party.fromValue(this.parties[this.next(this.parties.length)]);
+    }
+
+    @Benchmark
+    public Party partyValueOf() {
+        return Party.valueOf(this.parties[this.next(this.parties.length - 1)]);
+    }
+
+    @Benchmark
+    public Province provinceFromValue() {
+        return Province.fromValue(this.provinces[this.next(this.provinces.length)]);
+    }
+
+    private int next(int size) {
+        if (++this.position >= size) this.position = 0;
+        return this.position;
+    }
+}
@@ -0,0 +1,50 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.NationalElectionsResult;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.server.models.NationalElection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * STAR tally of the national election: emitting votes, and computing the scoring round and the
+ * runoff once the given amount of ballots was emitted
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NationalElectionBenchmark {
+    private static final int DISTINCT_VOTES = 100_000;
+
+    @Param({"10000", "1000000"})
+    public int ballots;
+
+    private List<Vote> votes;
+    private NationalElection election;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.votes = Ballots.create(DISTINCT_VOTES, 1000, 2);
+        this.election = new NationalElection();
+        for (int i = 0; i < this.ballots; i++) {
+            this.election.emitVote(this.votes.get(i % this.votes.size()).getStarVote());
+        }
+    }
+
+    @Benchmark
+    public void emitVote(Cursor cursor) {
+        this.election.emitVote(this.votes.get(cursor.next(this.votes.size())).getStarVote());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public NationalElectionsResult computeNationalElectionResults() {
+        this.election.computeNationalElectionResults();
+        return this.election.getResults();
+    }
+}
@@ -0,0 +1,86 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Java serialization round trips of what goes through RMI: batches of votes and the results of every query.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"500"})
+    public int batchSize;
+
+    private Vote vote;
+    private ArrayList<Vote> batch;
+    private FPTPResult fptpResult;
+    private NationalElectionsResult nationalResult;
+    private StateElectionsResult stateResult;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.batch = new ArrayList<>(Ballots.create(this.batchSize, 1, 5));
+        this.vote = this.batch.get(0);
+
+        double[] percentages = PartyResults.emptyDoubles();
+        long[] scores = PartyResults.emptyLongs();
+        for (Party party : Party.values()) {
+            percentages[party.ordinal()] = 100.0 / Party.values().length;
+            scores[party.ordinal()] = 1000L * (party.ordinal() + 1);
+        }
+        double[] runoff = PartyResults.emptyDoubles();
+        runoff[Party.BUFFALO.ordinal()] = 60.0;
+        runoff[Party.JACKALOPE.ordinal()] = 40.0;
+
+        this.fptpResult = new FPTPResult(percentages, ElectionState.OPEN);
+        this.nationalResult = new NationalElectionsResult(scores, runoff, Party.BUFFALO);
+        this.stateResult = new StateElectionsResult(Province.JUNGLE, percentages, percentages, percentages,
+                new Party[]{Party.BUFFALO, Party.JACKALOPE, Party.OWL});
+    }
+
+    @Benchmark
+    public Object vote() throws IOException, ClassNotFoundException {
+        return roundTrip(this.vote);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public List<Vote> voteBatch() throws IOException, ClassNotFoundException {
+        return (List<Vote>) roundTrip(this.batch);
+    }
+
+    @Benchmark
+    public Object fptpResult() throws IOException, ClassNotFoundException {
+        return roundTrip(this.fptpResult);
+    }
+
+    @Benchmark
+    public Object nationalResult() throws IOException, ClassNotFoundException {
+        return roundTrip(this.nationalResult);
+    }
+
+    @Benchmark
+    public Object stateResult() throws IOException, ClassNotFoundException {
+        return roundTrip(this.stateResult);
+    }
+
+    private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+}
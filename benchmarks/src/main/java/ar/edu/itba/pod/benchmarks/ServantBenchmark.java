@@ -0,0 +1,63 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.models.VoteResult;
+import ar.edu.itba.pod.server.Servant;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole vote path of the servant, called directly without going through RMI.
+ * A vote is applied to its table, the FPTP aggregates and both elections.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServantBenchmark {
+    private static final int DISTINCT_VOTES = 100_000;
+
+    @Param({"100", "10000"})
+    public int tables;
+
+    @Param({"500"})
+    public int batchSize;
+
+    private List<Vote> votes;
+    private List<List<Vote>> batches;
+    private Servant servant;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        this.votes = Ballots.create(DISTINCT_VOTES, this.tables, 3);
+        this.batches = new ArrayList<>();
+        for (int i = 0; i + this.batchSize <= this.votes.size(); i += this.batchSize) {
+            this.batches.add(this.votes.subList(i, i + this.batchSize));
+        }
+        this.servant = new Servant();
+        this.servant.openElection();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.servant.getAuditDispatcher().shutdown();
+    }
+
+    @Benchmark
+    public void emitVote(Cursor cursor) throws Exception {
+        this.servant.emitVote(this.votes.get(cursor.next(this.votes.size())));
+    }
+
+    /**
+     * Throughput is in batches, multiply by the batch size for votes
+     */
+    @Benchmark
+    public List<VoteResult> emitVotes(Cursor cursor) throws Exception {
+        return this.servant.emitVotes(this.batches.get(cursor.next(this.batches.size())));
+    }
+}
@@ -0,0 +1,58 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.StateElectionsResult;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.server.models.StateElection;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SPAV tally of the state election: emitting votes, and computing the three rounds once
+ * the given amount of ballots was emitted
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateElectionBenchmark {
+    private static final int DISTINCT_VOTES = 100_000;
+
+    @Param({"10000", "1000000"})
+    public int ballots;
+
+    private List<Vote> votes;
+    private StateElection election;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.votes = Ballots.create(DISTINCT_VOTES, 1000, 1);
+        this.election = new StateElection();
+        for (int i = 0; i < this.ballots; i++) {
+            Vote vote = this.votes.get(i % this.votes.size());
+            this.election.emitVote(vote.getProvince(), vote.getSpavVote());
+        }
+    }
+
+    @Benchmark
+    public void emitVote(Cursor cursor) {
+        Vote vote = this.votes.get(cursor.next(this.votes.size()));
+        this.election.emitVote(vote.getProvince(), vote.getSpavVote());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public void computeStateElectionResults() {
+        this.election.computeStateElectionResults();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public StateElectionsResult computeProvisionalResults() {
+        return this.election.computeResults(Province.JUNGLE);
+    }
+}
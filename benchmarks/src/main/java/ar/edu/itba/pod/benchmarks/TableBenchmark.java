@@ -0,0 +1,53 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.server.models.Table;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FPTP tally of a single table, with every thread voting on it.
+ * emitVoteAtomicLongMap is the map of AtomicLong per party tables used to count with, as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBenchmark {
+    private final Party[] parties = Party.values();
+    private Table table;
+    private Map<Party, AtomicLong> atomicVotes;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.table = new Table(Ballots.FIRST_TABLE, Province.JUNGLE);
+        this.table.emitVote(Party.TIGER);
+        this.atomicVotes = new HashMap<>();
+        Arrays.stream(this.parties).forEach(party -> this.atomicVotes.put(party, new AtomicLong()));
+    }
+
+    @Benchmark
+    public void emitVote() {
+        this.table.emitVote(this.parties[ThreadLocalRandom.current().nextInt(this.parties.length)]);
+    }
+
+    @Benchmark
+    public long emitVoteAtomicLongMap() {
+        return this.atomicVotes.get(this.parties[ThreadLocalRandom.current().nextInt(this.parties.length)]).getAndIncrement();
+    }
+
+    @Benchmark
+    public double[] getPercentages() throws NoVotesRegisteredException {
+        return this.table.getPercentages();
+    }
+}
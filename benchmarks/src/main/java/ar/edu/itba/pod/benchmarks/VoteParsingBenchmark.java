@@ -0,0 +1,78 @@
+package ar.edu.itba.pod.benchmarks;
+
+import ar.edu.itba.pod.client.parsing.VoteFileParser;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parsing of a votes file by the vote client, compared with reading all the lines and splitting them
+ * as the client used to do
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoteParsingBenchmark {
+    @Param({"100000", "1000000"})
+    public int votes;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.file = Files.createTempFile("votes", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(this.file)) {
+            for (Vote vote : Ballots.create(this.votes, 1000, 4)) {
+                StringJoiner starVote = new StringJoiner(",");
+                vote.getStarVote().forEach((party, score) -> starVote.add(party.getDescription() + "|" + score));
+                writer.write(vote.getTable() + ";" + vote.getProvince().getDescription() + ";" + starVote + ";" + vote.getFptpVote().getDescription());
+                writer.newLine();
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(this.file);
+    }
+
+    @Benchmark
+    public long parseMapped() throws IOException {
+        // The votes are consumed so they can not be optimized away
+        AtomicLong tables = new AtomicLong();
+        new VoteFileParser(this.file).parse(vote -> tables.addAndGet(vote.getTable()));
+        return tables.get();
+    }
+
+    @Benchmark
+    public List<Vote> parseSplitLines() throws IOException {
+        List<Vote> parsed = new ArrayList<>();
+        for (String line : Files.readAllLines(this.file)) {
+            String[] parts = line.trim().split(";");
+            Map<Party, Long> starVote = new HashMap<>();
+            List<Party> spavVote = new ArrayList<>();
+            if (!parts[2].isEmpty()) {
+                for (String s : parts[2].split(",")) {
+                    String[] values = s.split("\\|");
+                    Party party = Party.fromValue(values[0]);
+                    starVote.put(party, Long.parseLong(values[1]));
+                    spavVote.add(party);
+                }
+            }
+            parsed.add(new Vote(Province.fromValue(parts[1]), Integer.parseInt(parts[0]), Party.fromValue(parts[3]), starVote, spavVote));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,259 @@
+package ar.edu.itba.pod.client;
+
+import ar.edu.itba.pod.*;
+import ar.edu.itba.pod.client.arguments.LoadGeneratorClientArguments;
+import ar.edu.itba.pod.client.exceptions.InvalidArgumentsException;
+import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
+import ar.edu.itba.pod.metrics.LatencyHistogram;
+import ar.edu.itba.pod.models.*;
+
+import java.net.MalformedURLException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a running server with synthetic votes, queries and audit officers, and reports the
+ * throughput and the latency percentiles of each operation.
+ */
+public class LoadGeneratorClient {
+    // Votes are picked from a pool generated beforehand, so generating them does not limit the load
+    private static final int VOTE_POOL_SIZE = 10_000;
+    private static final int FIRST_TABLE = 1000;
+
+    private static final String EMIT_VOTES = "emitVotes";
+    private static final String NATIONAL_QUERY = "getNationalResults";
+    private static final String PROVINCE_QUERY = "getProvinceResults";
+    private static final String TABLE_QUERY = "getTableResults";
+    private static final String PROVISIONAL_QUERY = "getProvisionalNationalResults";
+
+    public static void main(final String[] args) throws InterruptedException {
+        try {
+            LoadGeneratorClientArguments clientArguments = new LoadGeneratorClientArguments();
+
+            // Parsing the arguments
+            try {
+                clientArguments.parseArguments();
+            } catch (InvalidArgumentsException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+
+            final String address = "//" + clientArguments.getServerAddress() + "/";
+            final VoteService voteService = (VoteService) Naming.lookup(address + VoteService.class.getName());
+            final QueryService queryService = (QueryService) Naming.lookup(address + QueryService.class.getName());
+            final AuditService auditService = (AuditService) Naming.lookup(address + AuditService.class.getName());
+            final ManagementService managementService = (ManagementService) Naming.lookup(address + ManagementService.class.getName());
+
+            // Auditors can only be registered before the elections are opened
+            List<CountingVoteHandler> auditors = new ArrayList<>();
+            try {
+                for (int i = 0; i < clientArguments.getAuditors(); i++) {
+                    CountingVoteHandler handler = new CountingVoteHandler();
+                    UnicastRemoteObject.exportObject(handler, 0);
+                    auditService.registerAuditOfficer(Party.values()[i % Party.values().length], FIRST_TABLE + i % clientArguments.getTables(), handler);
+                    auditors.add(handler);
+                }
+                if (clientArguments.isOpen()) {
+                    managementService.openElection();
+                }
+            } catch (InvalidElectionStateException e) {
+                System.out.println("ERROR: Elections must be PENDING to register audit officers or open them");
+                unexport(auditors);
+                return;
+            }
+
+            Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+            for (String operation : Arrays.asList(EMIT_VOTES, NATIONAL_QUERY, PROVINCE_QUERY, TABLE_QUERY, PROVISIONAL_QUERY)) {
+                histograms.put(operation, new LatencyHistogram());
+            }
+            // Votes accepted, rejected and invalid, indexed by the ordinal of the result
+            LongAdder[] voteResults = new LongAdder[VoteResult.values().length];
+            for (int i = 0; i < voteResults.length; i++) {
+                voteResults[i] = new LongAdder();
+            }
+            List<Vote> pool = createVotePool(Math.max(VOTE_POOL_SIZE, clientArguments.getBatchSize()), clientArguments.getTables());
+
+            final long start = System.nanoTime();
+            final long deadline = start + TimeUnit.SECONDS.toNanos(clientArguments.getDuration());
+
+            List<Thread> threads = new ArrayList<>();
+            // Each vote thread sends its share of the rate
+            double threadRate = clientArguments.getVoteRate() / (double) Math.max(1, clientArguments.getVoteThreads());
+            for (int i = 0; i < clientArguments.getVoteThreads(); i++) {
+                threads.add(new Thread(() -> sendVotes(voteService, pool, clientArguments.getBatchSize(), threadRate,
+                        deadline, histograms.get(EMIT_VOTES), voteResults), "load-votes-" + i));
+            }
+            for (int i = 0; i < clientArguments.getQueryThreads(); i++) {
+                threads.add(new Thread(() -> sendQueries(queryService, clientArguments.getTables(), deadline, histograms), "load-queries-" + i));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report(histograms, seconds, voteResults, auditors);
+            unexport(auditors);
+        } catch (RemoteException re) {
+            System.out.println("ERROR: Exception in the remote server");
+        } catch (NotBoundException nbe) {
+            System.out.println("ERROR: Service not bound");
+        } catch (MalformedURLException me) {
+            System.out.println("ERROR: Malformed URL");
+        }
+    }
+
+    /**
+     * Sends batches of votes until the deadline, at the given rate if it is not 0
+     * With a rate, latency is measured from the moment the batch should have been sent, so a slow
+     * server is not hidden by the batches that could not be sent on time
+     */
+    private static void sendVotes(VoteService service, List<Vote> pool, int batchSize, double votesPerSecond,
+                                  long deadline, LatencyHistogram histogram, LongAdder[] voteResults) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long interval = votesPerSecond > 0 ? (long) (batchSize * 1e9 / votesPerSecond) : 0;
+        long scheduled = System.nanoTime();
+
+        while (scheduled < deadline) {
+            if (interval > 0) {
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) sleepNanos(wait);
+            } else {
+                scheduled = System.nanoTime();
+            }
+
+            int from = random.nextInt(pool.size() - batchSize + 1);
+            List<Vote> batch = new ArrayList<>(pool.subList(from, from + batchSize));
+            try {
+                List<VoteResult> results = service.emitVotes(batch);
+                histogram.record(micros(scheduled));
+                for (VoteResult result : results) {
+                    voteResults[result.ordinal()].increment();
+                }
+            } catch (RemoteException e) {
+                histogram.recordError();
+            }
+            scheduled += interval;
+        }
+    }
+
+    /**
+     * Sends a random query until the deadline, one after the other
+     */
+    private static void sendQueries(QueryService service, int tables, long deadline, Map<String, LatencyHistogram> histograms) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String[] operations = {NATIONAL_QUERY, PROVINCE_QUERY, TABLE_QUERY, PROVISIONAL_QUERY};
+
+        while (System.nanoTime() < deadline) {
+            String operation = operations[random.nextInt(operations.length)];
+            long start = System.nanoTime();
+            try {
+                switch (operation) {
+                    case NATIONAL_QUERY:
+                        service.getNationalResults();
+                        break;
+                    case PROVINCE_QUERY:
+                        service.getProvinceResults(Province.values()[random.nextInt(Province.values().length)]);
+                        break;
+                    case TABLE_QUERY:
+                        service.getTableResults(FIRST_TABLE + random.nextInt(tables));
+                        break;
+                    default:
+                        service.getProvisionalNationalResults();
+                        break;
+                }
+                histograms.get(operation).record(micros(start));
+            } catch (Exception e) {
+                // Queries that can not be answered yet (no votes, elections not closed) are counted as errors
+                histograms.get(operation).recordError();
+            }
+        }
+    }
+
+    private static List<Vote> createVotePool(int size, int tables) {
+        Random random = new Random(tables);
+        List<Vote> pool = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<Party, Long> starVote = new EnumMap<>(Party.class);
+            List<Party> spavVote = new ArrayList<>();
+            for (Party party : Party.values()) {
+                if (random.nextBoolean()) {
+                    starVote.put(party, (long) random.nextInt(6));
+                    spavVote.add(party);
+                }
+            }
+            int table = random.nextInt(tables);
+            pool.add(new Vote(Province.values()[table % Province.values().length], FIRST_TABLE + table,
+                    Party.values()[random.nextInt(Party.values().length)], starVote, spavVote));
+        }
+        return pool;
+    }
+
+    private static void report(Map<String, LatencyHistogram> histograms, double seconds, LongAdder[] voteResults, List<CountingVoteHandler> auditors) {
+        long acceptedVotes = voteResults[VoteResult.ACCEPTED.ordinal()].sum();
+        System.out.printf(Locale.ENGLISH, "Duration: %.1f s\n", seconds);
+        System.out.printf(Locale.ENGLISH, "Votes accepted: %d (%.0f votes/s)\n", acceptedVotes, acceptedVotes / seconds);
+        System.out.printf(Locale.ENGLISH, "Votes rejected: %d, invalid: %d\n", voteResults[VoteResult.REJECTED.ordinal()].sum(),
+                voteResults[VoteResult.INVALID.ordinal()].sum());
+        System.out.println("Operation;Count;Errors;Ops/s;p50 ms;p99 ms;p999 ms");
+        histograms.forEach((operation, histogram) -> {
+            if (histogram.getCount() == 0 && histogram.getErrors() == 0) return;
+            System.out.printf(Locale.ENGLISH, "%s;%d;%d;%.1f;%.3f;%.3f;%.3f\n", operation, histogram.getCount(), histogram.getErrors(),
+                    histogram.getCount() / seconds, histogram.getPercentile(50) / 1000.0,
+                    histogram.getPercentile(99) / 1000.0, histogram.getPercentile(99.9) / 1000.0);
+        });
+        if (!auditors.isEmpty()) {
+            long notifications = auditors.stream().mapToLong(CountingVoteHandler::getNotifications).sum();
+            System.out.printf(Locale.ENGLISH, "Audit notifications received: %d (%.0f/s)\n", notifications, notifications / seconds);
+        }
+    }
+
+    private static long micros(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1000;
+    }
+
+    private static void sleepNanos(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void unexport(List<CountingVoteHandler> auditors) {
+        for (CountingVoteHandler handler : auditors) {
+            try {
+                UnicastRemoteObject.unexportObject(handler, true);
+            } catch (RemoteException e) {
+                // Already unexported
+            }
+        }
+    }
+
+    /**
+     * Audit officer that only counts the votes it is notified
+     */
+    private static class CountingVoteHandler implements PartyVoteHandler {
+        private final LongAdder notifications = new LongAdder();
+
+        @Override
+        public void onPartyVote(Vote vote) {
+            notifications.increment();
+        }
+
+        @Override
+        public void onPartyVotes(List<Vote> votes) {
+            notifications.add(votes.size());
+        }
+
+        private long getNotifications() {
+            return notifications.sum();
+        }
+    }
+}
@@ -5,15 +5,24 @@ import ar.edu.itba.pod.client.arguments.ManagementClientArguments;
 import ar.edu.itba.pod.client.exceptions.InvalidArgumentsException;
 import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
 import ar.edu.itba.pod.models.ElectionState;
+import ar.edu.itba.pod.models.Province;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.MalformedURLException;
+import java.nio.file.Files;
 import java.rmi.Naming;
 import java.rmi.NotBoundException;
 import java.rmi.RemoteException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class ManagementClient {
+    private static final int TABLE_ID = 0;
+    private static final int PROVINCE = 1;
 
     public static void main(final String[] args) {
         try {
@@ -44,9 +53,16 @@ public class ManagementClient {
                         ElectionState state = service.getElectionState();
                         System.out.println(state.getDescription());
                         break;
+                    case TABLES:
+                        Map<Integer, Province> tables = parseTablesFile(clientArguments.getTablesPath());
+                        service.registerTables(tables);
+                        System.out.printf("%d tables registered\n", tables.size());
+                        break;
                 }
             } catch (InvalidElectionStateException e) {
                 System.out.println("ERROR: Invalid election state");
+            } catch (IOException e) {
+                System.out.println("ERROR: Invalid file given, " + e.getMessage());
             }
         } catch (RemoteException re){
             System.out.println("ERROR: Exception in the remote server");
@@ -56,4 +72,29 @@ public class ManagementClient {
             System.out.println("ERROR: Malformed URL");
         }
     }
+
+    /**
+     * Parses the given file with one table per line, in the format tableId;province
+     *
+     * @param path Path to the file
+     * @return Map of table id to the province of the table
+     * @throws IOException if the file path is not valid, or a line is not a table
+     */
+    private static Map<Integer, Province> parseTablesFile(String path) throws IOException {
+        List<String> lines = Files.readAllLines(new File(path).toPath());
+        Map<Integer, Province> tables = new HashMap<>();
+
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty()) continue;
+            String[] tableParts = line.split(";");
+            try {
+                tables.put(Integer.parseInt(tableParts[TABLE_ID]), Province.fromValue(tableParts[PROVINCE]));
+            } catch (RuntimeException e) {
+                // Not a number, a province that does not exist or a missing field
+                throw new IOException("line " + (i + 1) + " is not a table: " + line);
+            }
+        }
+        return tables;
+    }
 }
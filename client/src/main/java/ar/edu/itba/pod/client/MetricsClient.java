@@ -0,0 +1,67 @@
+package ar.edu.itba.pod.client;
+
+import ar.edu.itba.pod.MetricsService;
+import ar.edu.itba.pod.client.arguments.MetricsClientArguments;
+import ar.edu.itba.pod.client.exceptions.InvalidArgumentsException;
+import ar.edu.itba.pod.models.ServerMetrics;
+
+import java.net.MalformedURLException;
+import java.rmi.Naming;
+import java.rmi.NotBoundException;
+import java.rmi.RemoteException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsClient {
+    public static void main(final String[] args) throws InterruptedException {
+        try {
+            MetricsClientArguments clientArguments = new MetricsClientArguments();
+
+            // Parsing the arguments
+            try {
+                clientArguments.parseArguments();
+            } catch (InvalidArgumentsException e) {
+                System.out.println(e.getMessage());
+                return;
+            }
+
+            // Getting the reference to the service
+            final MetricsService service = (MetricsService) Naming.lookup("//" + clientArguments.getServerAddress() + "/" + MetricsService.class.getName());
+
+            // Printing the metrics once, or every interval until the client is stopped
+            do {
+                printMetrics(service.getMetrics());
+                TimeUnit.SECONDS.sleep(clientArguments.getInterval());
+            } while (clientArguments.getInterval() > 0);
+        } catch (RemoteException re) {
+            System.out.println("ERROR: Exception in the remote server");
+        } catch (NotBoundException nbe) {
+            System.out.println("ERROR: Service not bound");
+        } catch (MalformedURLException me) {
+            System.out.println("ERROR: Malformed URL");
+        }
+    }
+
+    private static void printMetrics(ServerMetrics metrics) {
+        System.out.printf(Locale.ENGLISH, "State: %s, uptime %d s\n", metrics.getElectionState().getDescription(), TimeUnit.MILLISECONDS.toSeconds(metrics.getUptimeMillis()));
+        System.out.printf(Locale.ENGLISH, "Votes: %d accepted, %d rejected, %.0f votes/s\n", metrics.getAcceptedVotes(), metrics.getRejectedVotes(), metrics.getVotesPerSecond());
+        printLatency("emitVote", metrics.getEmitVoteLatency());
+        printLatency("emitVotes", metrics.getEmitVotesLatency());
+        System.out.printf(Locale.ENGLISH, "State lock: %d acquisitions, %d us waiting, %d us longest wait\n",
+                metrics.getStateLockAcquisitions(), metrics.getStateLockWaitMicros(), metrics.getStateLockMaxWaitMicros());
+        System.out.printf(Locale.ENGLISH, "Audit: %d queued, %d delivered, %d dropped, %d failed, %d officers evicted\n",
+                metrics.getAuditQueueDepth(), metrics.getAuditDelivered(), metrics.getAuditDropped(), metrics.getAuditFailed(), metrics.getAuditEvicted());
+        System.out.printf(Locale.ENGLISH, "Tallies: %d tables, %d ballots (%d distinct), ~%d KB\n",
+                metrics.getTables(), metrics.getRetainedBallots(), metrics.getDistinctBallots(), metrics.getEstimatedHeapBytes() / 1024);
+        if (metrics.getCloseMillis() >= 0) {
+            System.out.printf(Locale.ENGLISH, "Results computed in %d ms when closing\n", metrics.getCloseMillis());
+        }
+        System.out.println();
+    }
+
+    private static void printLatency(String operation, ServerMetrics.Latency latency) {
+        if (latency.getCount() == 0) return;
+        System.out.printf(Locale.ENGLISH, "%s: %d calls, p50 %.3f ms, p99 %.3f ms, p999 %.3f ms\n", operation, latency.getCount(),
+                latency.getP50Micros() / 1000.0, latency.getP99Micros() / 1000.0, latency.getP999Micros() / 1000.0);
+    }
+}
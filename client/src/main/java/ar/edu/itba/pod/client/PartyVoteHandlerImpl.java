@@ -3,9 +3,21 @@ package ar.edu.itba.pod.client;
 import ar.edu.itba.pod.PartyVoteHandler;
 import ar.edu.itba.pod.models.Vote;
 
+import java.util.List;
+
 public class PartyVoteHandlerImpl implements PartyVoteHandler {
     @Override
     public void onPartyVote(Vote vote) {
         System.out.format("New vote for %s on polling place %d\n", vote.getFptpVote().toString(), vote.getTable());
     }
+
+    @Override
+    public void onPartyVotes(List<Vote> votes) {
+        // Printing the whole batch at once, instead of flushing once per vote
+        StringBuilder sb = new StringBuilder();
+        for (Vote vote : votes) {
+            sb.append(String.format("New vote for %s on polling place %d\n", vote.getFptpVote().toString(), vote.getTable()));
+        }
+        System.out.print(sb);
+    }
 }
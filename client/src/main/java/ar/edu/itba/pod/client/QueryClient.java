@@ -41,7 +41,7 @@ public class QueryClient {
             try {
                 // This is the NATIONAL election
                 if (clientArguments.getProvinceName() == null && clientArguments.getTableID() == null) {
-                    ElectionResults results = service.getNationalResults();
+                    ElectionResults results = clientArguments.isProvisional() ? service.getProvisionalNationalResults() : service.getNationalResults();
                     if (results.getVotingType() == VotingType.NATIONAL) {
                         nationalQuery(results, clientArguments.getOutputPath());
                     } else {
@@ -55,7 +55,8 @@ public class QueryClient {
                 }
                 // This is the STATE election
                 else {
-                    ElectionResults stateResults = service.getProvinceResults(Province.fromValue(clientArguments.getProvinceName()));
+                    Province province = Province.fromValue(clientArguments.getProvinceName());
+                    ElectionResults stateResults = clientArguments.isProvisional() ? service.getProvisionalProvinceResults(province) : service.getProvinceResults(province);
                     if (stateResults.getVotingType() == VotingType.STATE) {
                         stateQuery(stateResults, clientArguments.getOutputPath());
                     } else {
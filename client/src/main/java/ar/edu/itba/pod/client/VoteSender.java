@@ -0,0 +1,152 @@
+package ar.edu.itba.pod.client;
+
+import ar.edu.itba.pod.VoteService;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.models.VoteResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.rmi.ConnectException;
+import java.rmi.ConnectIOException;
+import java.rmi.RemoteException;
+import java.rmi.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends batches of votes to the server with a bounded amount of requests in flight.
+ * Sending a batch blocks while the limit is reached, so the one producing the batches never gets
+ * ahead of the server. Every vote ends up counted once as accepted, rejected, invalid or failed.
+ *
+ * Only the calls that could not reach the server are retried, since retrying a call whose answer was
+ * lost could apply its votes twice. Those calls are counted as failed, as are the calls that fail with
+ * an unchecked exception, which are never retried.
+ */
+public class VoteSender implements AutoCloseable {
+    private static final Logger LOG = LoggerFactory.getLogger(VoteSender.class);
+
+    private static final long MAX_BACKOFF_MILLIS = 5000;
+
+    private final VoteService service;
+    private final int maxInFlight;
+    private final int maxRetries;
+    private final long initialBackoffMillis;
+
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder invalid = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    public VoteSender(VoteService service, int maxInFlight, int maxRetries, long initialBackoffMillis) {
+        this.service = service;
+        this.maxInFlight = maxInFlight;
+        this.maxRetries = maxRetries;
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = Executors.newFixedThreadPool(maxInFlight);
+    }
+
+    /**
+     * Sends a batch of votes, waiting if there are already too many requests in flight
+     * @param votes Batch of votes, must not be modified afterwards
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void send(List<Vote> votes) throws InterruptedException {
+        this.inFlight.acquire();
+        try {
+            this.executor.execute(() -> {
+                try {
+                    this.sendWithRetries(votes);
+                } finally {
+                    this.inFlight.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            this.inFlight.release();
+            throw e;
+        }
+    }
+
+    private void sendWithRetries(List<Vote> votes) {
+        for (int attempt = 0; ; attempt++) {
+            try {
+                List<VoteResult> results = this.service.emitVotes(votes);
+                for (VoteResult result : results) {
+                    if (result == VoteResult.ACCEPTED) this.accepted.increment();
+                    else if (result == VoteResult.REJECTED) this.rejected.increment();
+                    else this.invalid.increment();
+                }
+                return;
+            } catch (RemoteException e) {
+                if (attempt >= this.maxRetries || !isNotDelivered(e)) {
+                    LOG.warn("Batch of {} votes could not be sent: {}", votes.size(), e.getMessage());
+                    this.failed.add(votes.size());
+                    return;
+                }
+                this.retries.increment();
+                try {
+                    Thread.sleep(Math.min(MAX_BACKOFF_MILLIS, this.initialBackoffMillis << Math.min(attempt, 16)));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    this.failed.add(votes.size());
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOG.warn("Batch of {} votes failed: {}", votes.size(), e.toString());
+                this.failed.add(votes.size());
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true if the call certainly did not reach the server
+     */
+    private static boolean isNotDelivered(RemoteException e) {
+        return e instanceof ConnectException || e instanceof ConnectIOException || e instanceof UnknownHostException;
+    }
+
+    /**
+     * Waits until every batch sent so far has been answered or has failed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void awaitCompletion() throws InterruptedException {
+        this.inFlight.acquire(this.maxInFlight);
+        this.inFlight.release(this.maxInFlight);
+    }
+
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    public long getAccepted() {
+        return accepted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return Amount of votes the server did not apply because they were malformed
+     */
+    public long getInvalid() {
+        return invalid.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getRetries() {
+        return retries.sum();
+    }
+}
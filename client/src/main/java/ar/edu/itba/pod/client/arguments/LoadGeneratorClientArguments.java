@@ -0,0 +1,121 @@
+package ar.edu.itba.pod.client.arguments;
+
+import ar.edu.itba.pod.client.exceptions.InvalidArgumentsException;
+
+import java.util.Properties;
+
+public class LoadGeneratorClientArguments {
+    private String serverAddress;
+    private int duration = 30;
+    private int voteRate = 0;
+    private int voteThreads = 8;
+    private int batchSize = 500;
+    private int queryThreads = 2;
+    private int auditors = 0;
+    private int tables = 100;
+    private boolean open = false;
+
+    private static final String SERVER_ADDRESS_KEY = "serverAddress";
+    private static final String DURATION_KEY = "duration";
+    private static final String VOTE_RATE_KEY = "voteRate";
+    private static final String VOTE_THREADS_KEY = "voteThreads";
+    private static final String BATCH_SIZE_KEY = "batchSize";
+    private static final String QUERY_THREADS_KEY = "queryThreads";
+    private static final String AUDITORS_KEY = "auditors";
+    private static final String TABLES_KEY = "tables";
+    private static final String OPEN_KEY = "open";
+
+    public String getServerAddress() {
+        return serverAddress;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getVoteRate() {
+        return voteRate;
+    }
+
+    public int getVoteThreads() {
+        return voteThreads;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getQueryThreads() {
+        return queryThreads;
+    }
+
+    public int getAuditors() {
+        return auditors;
+    }
+
+    public int getTables() {
+        return tables;
+    }
+
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Parses the arguments passed to the client and stores the values
+     *
+     * @throws InvalidArgumentsException if an invalid argument is received
+     */
+    public void parseArguments() throws InvalidArgumentsException {
+        Properties props = System.getProperties();
+
+        // Try to obtain the server address
+        if (!props.containsKey(SERVER_ADDRESS_KEY)) {
+            this.printHelp();
+            throw new InvalidArgumentsException("Invalid argument for serverAddress");
+        } else {
+            this.serverAddress = props.getProperty(SERVER_ADDRESS_KEY);
+        }
+
+        // All the other parameters are optional
+        this.duration = this.parseNumber(props, DURATION_KEY, this.duration, 1);
+        this.voteRate = this.parseNumber(props, VOTE_RATE_KEY, this.voteRate, 0);
+        this.voteThreads = this.parseNumber(props, VOTE_THREADS_KEY, this.voteThreads, 0);
+        this.batchSize = this.parseNumber(props, BATCH_SIZE_KEY, this.batchSize, 1);
+        this.queryThreads = this.parseNumber(props, QUERY_THREADS_KEY, this.queryThreads, 0);
+        this.auditors = this.parseNumber(props, AUDITORS_KEY, this.auditors, 0);
+        this.tables = this.parseNumber(props, TABLES_KEY, this.tables, 1);
+        this.open = Boolean.parseBoolean(props.getProperty(OPEN_KEY, Boolean.toString(this.open)));
+    }
+
+    private int parseNumber(Properties props, String key, int defaultValue, int minimum) throws InvalidArgumentsException {
+        if (!props.containsKey(key)) return defaultValue;
+        try {
+            int value = Integer.parseInt(props.getProperty(key));
+            if (value >= minimum) return value;
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        this.printHelp();
+        throw new InvalidArgumentsException("Invalid argument for " + key);
+    }
+
+    /**
+     * Method to print the help for the load generator client
+     */
+    private void printHelp() {
+        System.out.println("This program should be run as follows:\n" +
+                "$>./run-load -DserverAddress=xx.xx.xx.xx:yyyy [ -Dduration=seconds ] [ -DvoteRate=votesPerSecond ]\n" +
+                "[ -DvoteThreads=n ] [ -DbatchSize=n ] [ -DqueryThreads=n ] [ -Dauditors=n ] [ -Dtables=n ] [ -Dopen=true ]\n" +
+                "Where: \n" +
+                " - DserverAddress is xx.xx.xx.xx:yyyy with xx.xx.xx.xx is the server address and yyyy the port of the server\n" +
+                " - Dduration is how long the load is generated, 30 seconds by default\n" +
+                " - DvoteRate is the amount of votes sent per second, 0 (the default) sends them as fast as possible\n" +
+                " - DvoteThreads is the amount of threads sending votes, 8 by default\n" +
+                " - DbatchSize is the amount of votes sent on each call, 500 by default\n" +
+                " - DqueryThreads is the amount of threads querying results, 2 by default\n" +
+                " - Dauditors is the amount of audit officers registered, elections must be PENDING, 0 by default\n" +
+                " - Dtables is the amount of different tables the votes are emitted on, 100 by default\n" +
+                " - Dopen opens the elections before generating the load, they must be PENDING\n");
+    }
+}
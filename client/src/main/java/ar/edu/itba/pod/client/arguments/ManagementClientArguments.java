@@ -9,9 +9,11 @@ import java.util.Properties;
 public class ManagementClientArguments {
     private ManagementClientActions action;
     private String serverAddress;
+    private String tablesPath;
 
     private static final String ACTIONS_KEY = "action";
     private static final String SERVER_ADDRESS_KEY = "serverAddress";
+    private static final String TABLES_PATH_KEY = "tablesPath";
 
     public ManagementClientActions getAction() {
         return action;
@@ -21,6 +23,10 @@ public class ManagementClientArguments {
         return serverAddress;
     }
 
+    public String getTablesPath() {
+        return tablesPath;
+    }
+
     /**
      * Parses the arguments passed to the client and stores the values
      * @throws InvalidArgumentsException if an invalid argument is received
@@ -43,6 +49,16 @@ public class ManagementClientArguments {
         } else {
             this.serverAddress = props.getProperty(SERVER_ADDRESS_KEY);
         }
+
+        // Try to obtain the tables path, only needed to register the tables
+        if (this.action == ManagementClientActions.TABLES) {
+            if (!props.containsKey(TABLES_PATH_KEY)){
+                this.printHelp();
+                throw new InvalidArgumentsException("Invalid argument for tablesPath");
+            } else {
+                this.tablesPath = props.getProperty(TABLES_PATH_KEY);
+            }
+        }
     }
 
     /**
@@ -50,17 +66,18 @@ public class ManagementClientArguments {
      */
     private void printHelp(){
         System.out.println("This program should be run as follows:\n"+
-                "$>./run-ManagementClient -DserverAddress=xx.xx.xx.xx:yyyy -Daction=actionName\n"+
+                "$>./run-ManagementClient -DserverAddress=xx.xx.xx.xx:yyyy -Daction=actionName [ -DtablesPath=filename ]\n"+
                 "Where: \n"+
                 " - DserverAddress is xx.xx.xx.xx:yyyy with xx.xx.xx.xx is the server address and yyyy the port of the server\n"+
-                " - Daction is open, closed or state");
+                " - Daction is open, closed, state or tables\n"+
+                " - DtablesPath is the path to the file with the tables to register, only for the tables action");
     }
 
     /**
      * Enum for the actions available
      */
     public enum ManagementClientActions {
-        OPEN("open"), CLOSE("close"), STATE("state");
+        OPEN("open"), CLOSE("close"), STATE("state"), TABLES("tables");
 
         private String actionString;
 
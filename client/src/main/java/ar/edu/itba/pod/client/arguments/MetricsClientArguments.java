@@ -0,0 +1,64 @@
+package ar.edu.itba.pod.client.arguments;
+
+import ar.edu.itba.pod.client.exceptions.InvalidArgumentsException;
+
+import java.util.Properties;
+
+public class MetricsClientArguments {
+    private String serverAddress;
+    private int interval = 0;
+
+    private static final String SERVER_ADDRESS_KEY = "serverAddress";
+    private static final String INTERVAL_KEY = "interval";
+
+    public String getServerAddress() {
+        return serverAddress;
+    }
+
+    /**
+     * @return Seconds between each time the metrics are printed, 0 to print them only once
+     */
+    public int getInterval() {
+        return interval;
+    }
+
+    /**
+     * Parses the arguments passed to the client and stores the values
+     * @throws InvalidArgumentsException if an invalid argument is received
+     */
+    public void parseArguments() throws InvalidArgumentsException {
+        Properties props = System.getProperties();
+
+        // Try to obtain the server address
+        if (!props.containsKey(SERVER_ADDRESS_KEY)) {
+            this.printHelp();
+            throw new InvalidArgumentsException("Invalid argument for serverAddress");
+        } else {
+            this.serverAddress = props.getProperty(SERVER_ADDRESS_KEY);
+        }
+
+        // The interval is optional
+        if (props.containsKey(INTERVAL_KEY)) {
+            try {
+                this.interval = Integer.parseInt(props.getProperty(INTERVAL_KEY));
+            } catch (NumberFormatException e) {
+                this.interval = -1;
+            }
+            if (this.interval < 0) {
+                this.printHelp();
+                throw new InvalidArgumentsException("Invalid argument for interval");
+            }
+        }
+    }
+
+    /**
+     * Method to print the help for the metrics client
+     */
+    private void printHelp() {
+        System.out.println("This program should be run as follows:\n" +
+                "$>./run-metrics -DserverAddress=xx.xx.xx.xx:yyyy [ -Dinterval=seconds ]\n" +
+                "Where: \n" +
+                " - DserverAddress is xx.xx.xx.xx:yyyy with xx.xx.xx.xx is the server address and yyyy the port of the server\n" +
+                " - Dinterval is the amount of seconds between each time the metrics are printed, if not given they are printed once");
+    }
+}
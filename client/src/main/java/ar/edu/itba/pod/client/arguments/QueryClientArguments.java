@@ -10,11 +10,13 @@ public class QueryClientArguments {
     private String provinceName;
     private String outputPath;
     private Integer tableID = null;
+    private boolean provisional = false;
 
     private static final String STATE_KEY = "state";
     private static final String ID_KEY = "id";
     private static final String OUT_PATH = "outPath";
     private static final String SERVER_ADDRESS_KEY = "serverAddress";
+    private static final String PROVISIONAL_KEY = "provisional";
 
     public String getServerAddress() {
         return serverAddress;
@@ -30,6 +32,10 @@ public class QueryClientArguments {
         return tableID;
     }
 
+    public boolean isProvisional() {
+        return provisional;
+    }
+
     /**
      * Parses the arguments passed to the client and stores the values
      * @throws InvalidArgumentsException if an invalid argument is received
@@ -52,6 +58,15 @@ public class QueryClientArguments {
             this.tableID = Integer.parseInt(props.getProperty(ID_KEY));
         }
 
+        // Try to obtain the provisional parameter, it does not apply to table queries
+        if (props.containsKey(PROVISIONAL_KEY)){
+            if (this.tableID != null) {
+                this.printHelp();
+                throw new InvalidArgumentsException("Cannot request provisional results of a table");
+            }
+            this.provisional = Boolean.parseBoolean(props.getProperty(PROVISIONAL_KEY));
+        }
+
         // Try to obtain the out path parameter
         if (!props.containsKey(OUT_PATH)){
             this.printHelp();
@@ -75,11 +90,12 @@ public class QueryClientArguments {
     private void printHelp(){
         System.out.println("This program should be run as follows:\n"+
                 "$>./run-query -DserverAddress=xx.xx.xx.xx:yyyy [ -Dstate=stateName |\n" +
-                "-Did=pollingPlaceNumber ] -DoutPath=fileName\n"+
+                "-Did=pollingPlaceNumber ] [ -Dprovisional=true ] -DoutPath=fileName\n"+
                 "Where: \n"+
                 " - DserverAddress is xx.xx.xx.xx:yyyy with xx.xx.xx.xx is the server address and yyyy the port of the server\n"+
                 " - Dstate is the name of the province\n"+
                 " - Did is the voting table id\n"+
+                " - Dprovisional requests the STAR/SPAV results with the votes emitted so far, while the election is open\n"+
                 " - DoutPath is the path where the results file will be stored\n");
     }
 }
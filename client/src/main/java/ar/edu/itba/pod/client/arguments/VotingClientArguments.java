@@ -7,9 +7,16 @@ import java.util.Properties;
 public class VotingClientArguments {
     private String votesPath;
     private String serverAddress;
+    private int maxInFlight = DEFAULT_MAX_IN_FLIGHT;
+    private int retries = DEFAULT_RETRIES;
 
     private static final String VOTES_FILENAME_KEY = "votesPath";
     private static final String SERVER_ADDRESS_KEY = "serverAddress";
+    private static final String MAX_IN_FLIGHT_KEY = "maxInFlight";
+    private static final String RETRIES_KEY = "retries";
+
+    private static final int DEFAULT_MAX_IN_FLIGHT = 20;
+    private static final int DEFAULT_RETRIES = 3;
 
     public String getVotesPath() {
         return votesPath;
@@ -19,6 +26,14 @@ public class VotingClientArguments {
         return serverAddress;
     }
 
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public int getRetries() {
+        return retries;
+    }
+
     public void setVotesPath(String votesPath) {
         this.votesPath = votesPath;
     }
@@ -58,6 +73,23 @@ public class VotingClientArguments {
         } else {
             this.serverAddress = props.getProperty(SERVER_ADDRESS_KEY);
         }
+
+        // Try to obtain the optional sending parameters
+        try {
+            if (props.containsKey(MAX_IN_FLIGHT_KEY)) {
+                this.maxInFlight = Integer.parseInt(props.getProperty(MAX_IN_FLIGHT_KEY));
+            }
+            if (props.containsKey(RETRIES_KEY)) {
+                this.retries = Integer.parseInt(props.getProperty(RETRIES_KEY));
+            }
+        } catch (NumberFormatException e) {
+            this.printHelp();
+            throw new InvalidArgumentsException("Invalid argument for maxInFlight or retries");
+        }
+        if (this.maxInFlight <= 0 || this.retries < 0) {
+            this.printHelp();
+            throw new InvalidArgumentsException("Invalid argument for maxInFlight or retries");
+        }
     }
 
     /**
@@ -65,9 +97,11 @@ public class VotingClientArguments {
      */
     private void printHelp() {
         System.out.println("This program should be run as follows:\n" +
-                "$>./run-vote -DserverAddress=xx.xx.xx.xx:yyyy -DvotesPath=filename\n" +
+                "$>./run-vote -DserverAddress=xx.xx.xx.xx:yyyy -DvotesPath=filename [ -DmaxInFlight=n ] [ -Dretries=n ]\n" +
                 "Where: \n" +
                 " - DserverAddress is xx.xx.xx.xx:yyyy with xx.xx.xx.xx is the server address and yyyy the port of the server\n" +
-                " - DvotesPath is the path to the file");
+                " - DvotesPath is the path to the file\n" +
+                " - DmaxInFlight is the amount of requests sent to the server at the same time, 20 by default\n" +
+                " - Dretries is the amount of times a request that can not reach the server is retried, 3 by default");
     }
 }
@@ -0,0 +1,194 @@
+package ar.edu.itba.pod.client.parsing;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Reads a votes file without loading it in memory.
+ * The file is mapped in windows and scanned byte by byte, each vote is handed to the consumer as soon as its
+ * line is read. Every line has the format tableId;province;party|score,party|score,...;fptpParty
+ */
+public class VoteFileParser {
+    // Size of each mapped window of the file, lines can not be longer than it
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private static final byte FIELD_SEPARATOR = ';';
+    private static final byte VOTE_SEPARATOR = ',';
+    private static final byte SCORE_SEPARATOR = '|';
+    private static final byte LINE_SEPARATOR = '\n';
+
+    private static final byte[][] PARTY_NAMES = Arrays.stream(Party.values())
+            .map(p -> p.getDescription().getBytes(StandardCharsets.US_ASCII)).toArray(byte[][]::new);
+    private static final byte[][] PROVINCE_NAMES = Arrays.stream(Province.values())
+            .map(p -> p.getDescription().getBytes(StandardCharsets.US_ASCII)).toArray(byte[][]::new);
+
+    private final Path path;
+    private final int windowSize;
+
+    public VoteFileParser(Path path) {
+        this(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    public VoteFileParser(Path path, int windowSize) {
+        this.path = path;
+        this.windowSize = windowSize;
+    }
+
+    /**
+     * Reads every vote of the file
+     * @param consumer Receives each vote, in the order of the file
+     * @return Amount of votes read
+     * @throws IOException if the file can not be read or a line is not a valid vote
+     */
+    public long parse(Consumer<Vote> consumer) throws IOException {
+        long votes = 0;
+        long lineNumber = 0;
+        try (FileChannel channel = FileChannel.open(this.path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(this.windowSize, size - position);
+                ByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+
+                // Only whole lines are read from the window, the last one continues in the next window
+                int end = length;
+                if (position + length < size) {
+                    end = lastIndexOf(window, LINE_SEPARATOR, length) + 1;
+                    if (end == 0) {
+                        throw new IOException("Line " + (lineNumber + 1) + " is longer than " + this.windowSize + " bytes");
+                    }
+                }
+
+                int start = 0;
+                while (start < end) {
+                    int lineEnd = indexOf(window, LINE_SEPARATOR, start, end);
+                    lineNumber++;
+                    Vote vote = parseLine(window, start, lineEnd, lineNumber);
+                    if (vote != null) {
+                        consumer.accept(vote);
+                        votes++;
+                    }
+                    start = lineEnd + 1;
+                }
+                position += end;
+            }
+        }
+        return votes;
+    }
+
+    /**
+     * Parses the line between from (inclusive) and to (exclusive)
+     * @return Vote of the line, null if the line is blank
+     */
+    private static Vote parseLine(ByteBuffer buffer, int from, int to, long lineNumber) throws IOException {
+        // Trimming the line, this also drops the \r of files with windows line endings
+        while (from < to && buffer.get(from) <= ' ') from++;
+        while (to > from && buffer.get(to - 1) <= ' ') to--;
+        if (from == to) return null;
+
+        int tableEnd = indexOf(buffer, FIELD_SEPARATOR, from, to);
+        int provinceEnd = indexOf(buffer, FIELD_SEPARATOR, tableEnd + 1, to);
+        int starEnd = indexOf(buffer, FIELD_SEPARATOR, provinceEnd + 1, to);
+        if (starEnd >= to) {
+            throw invalidLine(lineNumber);
+        }
+
+        int table = parseInt(buffer, from, tableEnd, lineNumber);
+        Province province = Province.values()[match(buffer, tableEnd + 1, provinceEnd, PROVINCE_NAMES, lineNumber)];
+        Party fptpVote = Party.values()[match(buffer, starEnd + 1, to, PARTY_NAMES, lineNumber)];
+
+        // STAR and SPAV votes share the same field, every party with a score is approved
+        Map<Party, Long> starVote = new EnumMap<>(Party.class);
+        List<Party> spavVote = new ArrayList<>();
+        int start = provinceEnd + 1;
+        while (start < starEnd) {
+            int voteEnd = indexOf(buffer, VOTE_SEPARATOR, start, starEnd);
+            int scoreStart = indexOf(buffer, SCORE_SEPARATOR, start, voteEnd);
+            if (scoreStart >= voteEnd) {
+                throw invalidLine(lineNumber);
+            }
+            Party party = Party.values()[match(buffer, start, scoreStart, PARTY_NAMES, lineNumber)];
+            starVote.put(party, (long) parseInt(buffer, scoreStart + 1, voteEnd, lineNumber));
+            spavVote.add(party);
+            start = voteEnd + 1;
+        }
+
+        return new Vote(province, table, fptpVote, starVote, spavVote);
+    }
+
+    private static int parseInt(ByteBuffer buffer, int from, int to, long lineNumber) throws IOException {
+        boolean negative = from < to && buffer.get(from) == '-';
+        if (negative) from++;
+        if (from == to || to - from > 10) {
+            throw invalidLine(lineNumber);
+        }
+
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                throw invalidLine(lineNumber);
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw invalidLine(lineNumber);
+        }
+        return (int) value;
+    }
+
+    /**
+     * Finds which of the names is between from and to, ignoring the case as the enums do
+     * @return Index of the name
+     */
+    private static int match(ByteBuffer buffer, int from, int to, byte[][] names, long lineNumber) throws IOException {
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = names[i];
+            if (name.length != to - from) continue;
+            int j = 0;
+            // Names are upper case letters, clearing the lower case bit compares them ignoring the case
+            while (j < name.length && (buffer.get(from + j) & 0xDF) == name[j]) j++;
+            if (j == name.length) return i;
+        }
+        throw invalidLine(lineNumber);
+    }
+
+    /**
+     * @return Position of the value between from and to, to if it is not there
+     */
+    private static int indexOf(ByteBuffer buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == value) return i;
+        }
+        return to;
+    }
+
+    /**
+     * @return Last position of the value before to, -1 if it is not there
+     */
+    private static int lastIndexOf(ByteBuffer buffer, byte value, int to) {
+        for (int i = to - 1; i >= 0; i--) {
+            if (buffer.get(i) == value) return i;
+        }
+        return -1;
+    }
+
+    private static IOException invalidLine(long lineNumber) {
+        return new IOException("Invalid vote on line " + lineNumber);
+    }
+}
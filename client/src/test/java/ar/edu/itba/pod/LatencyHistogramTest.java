@@ -0,0 +1,47 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.metrics.LatencyHistogram;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testSmallValuesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 10; i++) {
+            histogram.record(i);
+        }
+        assertEquals(10, histogram.getCount());
+        assertEquals(5, histogram.getPercentile(50));
+        assertEquals(10, histogram.getPercentile(100));
+    }
+
+    @Test
+    public void testPercentilesAreWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i);
+        }
+        for (double percentile : new double[]{50, 99, 99.9}) {
+            long expected = (long) (100_000 * percentile / 100);
+            long actual = histogram.getPercentile(percentile);
+            assertTrue(actual >= expected);
+            assertTrue(actual <= expected + expected / 16);
+        }
+    }
+
+    @Test
+    public void testErrorsAreCountedApart() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.recordError();
+        assertEquals(1, histogram.getCount());
+        assertEquals(1, histogram.getErrors());
+        // Only the successful operation is in the percentiles
+        assertTrue(histogram.getPercentile(100) < 200);
+        assertEquals(0, new LatencyHistogram().getPercentile(99));
+    }
+}
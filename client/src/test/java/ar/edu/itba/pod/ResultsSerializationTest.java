@@ -0,0 +1,92 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.*;
+import org.apache.commons.lang3.tuple.MutablePair;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ResultsSerializationTest {
+
+    @Test
+    public void testFptpRoundTrip() throws IOException, ClassNotFoundException {
+        double[] percentages = new double[Party.values().length];
+        percentages[Party.OWL.ordinal()] = 40.0;
+        percentages[Party.TIGER.ordinal()] = 40.0;
+        percentages[Party.LYNX.ordinal()] = 20.0;
+
+        FPTPResult copy = (FPTPResult) deserialize(serialize(new FPTPResult(percentages, ElectionState.CLOSED)));
+
+        assertEquals(VotingType.FPTP, copy.getVotingType());
+        assertEquals(ElectionState.CLOSED, copy.getElectionState());
+        // Ties go to the smallest alphanumeric party
+        assertEquals(Party.OWL, copy.getWinner());
+        assertEquals(Arrays.asList(Party.OWL, Party.TIGER, Party.LYNX), parties(copy.getFptpResults()).subList(0, 3));
+        assertEquals(Party.values().length, copy.getFptpResults().size());
+    }
+
+    @Test
+    public void testNationalRoundTrip() throws IOException, ClassNotFoundException {
+        long[] scores = PartyResults.emptyLongs();
+        scores[Party.TIGER.ordinal()] = 12;
+        scores[Party.BUFFALO.ordinal()] = 20;
+        scores[Party.LEOPARD.ordinal()] = 0;
+        double[] runoff = PartyResults.emptyDoubles();
+        runoff[Party.BUFFALO.ordinal()] = 75.0;
+        runoff[Party.TIGER.ordinal()] = 25.0;
+
+        NationalElectionsResult copy = (NationalElectionsResult) deserialize(serialize(new NationalElectionsResult(scores, runoff, Party.BUFFALO)));
+
+        assertEquals(VotingType.NATIONAL, copy.getVotingType());
+        assertEquals(Party.BUFFALO, copy.getWinner());
+        // Parties that were not voted are not part of the scoring round
+        assertEquals(Arrays.asList(Party.BUFFALO, Party.TIGER, Party.LEOPARD), parties(copy.getScoringRoundResults()));
+        assertEquals(Long.valueOf(20), copy.getScoringRoundResults().first().getValue());
+        assertEquals(Arrays.asList(Party.BUFFALO, Party.TIGER), parties(copy.getAutomaticRunoffResults()));
+    }
+
+    @Test
+    public void testStateRoundTrip() throws IOException, ClassNotFoundException {
+        double[] first = new double[Party.values().length];
+        first[Party.TIGER.ordinal()] = 3.0;
+        double[] second = first.clone();
+        second[Party.TIGER.ordinal()] = Double.NaN;
+        double[] third = second.clone();
+        Party[] winners = {Party.TIGER, Party.BUFFALO, Party.JACKALOPE};
+
+        StateElectionsResult copy = (StateElectionsResult) deserialize(serialize(new StateElectionsResult(Province.SAVANNAH, first, second, third, winners)));
+
+        assertEquals(VotingType.STATE, copy.getVotingType());
+        assertEquals(Province.SAVANNAH, copy.getProvince());
+        assertArrayEquals(winners, copy.getWinners());
+        assertEquals(Party.values().length, copy.getFirstRound().size());
+        assertEquals(Party.values().length - 1, copy.getSecondRound().size());
+        assertEquals(Party.TIGER, copy.getFirstRound().first().getKey());
+    }
+
+    private static <T> List<Party> parties(Iterable<MutablePair<Party, T>> results) {
+        List<Party> parties = new ArrayList<>();
+        results.forEach(pair -> parties.add(pair.getKey()));
+        return parties;
+    }
+
+    private static byte[] serialize(Object object) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
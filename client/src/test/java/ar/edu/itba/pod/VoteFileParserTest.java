@@ -0,0 +1,101 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.client.parsing.VoteFileParser;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VoteFileParserTest {
+    private Path file;
+
+    @Before
+    public void setUp() throws IOException {
+        file = Files.createTempFile("votes", ".csv");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void testParseLines() throws IOException {
+        write("1000;JUNGLE;TIGER|3,LEOPARD|2,LYNX|1;TIGER\n" +
+                "1001;savannah;;owl\r\n" +
+                "\n" +
+                "  -7;TUNDRA;BUFFALO|0;Buffalo  \n" +
+                "1002;JUNGLE;JACKALOPE|5;TURTLE");
+
+        List<Vote> votes = new ArrayList<>();
+        assertEquals(4, new VoteFileParser(file).parse(votes::add));
+
+        Vote first = votes.get(0);
+        assertEquals(Integer.valueOf(1000), first.getTable());
+        assertEquals(Province.JUNGLE, first.getProvince());
+        assertEquals(Party.TIGER, first.getFptpVote());
+        Map<Party, Long> star = new HashMap<>();
+        star.put(Party.TIGER, 3L);
+        star.put(Party.LEOPARD, 2L);
+        star.put(Party.LYNX, 1L);
+        assertEquals(star, first.getStarVote());
+        assertEquals(Arrays.asList(Party.TIGER, Party.LEOPARD, Party.LYNX), first.getSpavVote());
+
+        Vote second = votes.get(1);
+        assertEquals(Province.SAVANNAH, second.getProvince());
+        assertEquals(Party.OWL, second.getFptpVote());
+        assertTrue(second.getStarVote().isEmpty());
+        assertTrue(second.getSpavVote().isEmpty());
+
+        Vote third = votes.get(2);
+        assertEquals(Integer.valueOf(-7), third.getTable());
+        assertEquals(Long.valueOf(0), third.getStarVote().get(Party.BUFFALO));
+        assertEquals(Party.BUFFALO, third.getFptpVote());
+
+        assertEquals(Party.TURTLE, votes.get(3).getFptpVote());
+    }
+
+    @Test
+    public void testLinesAcrossWindows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i).append(";TUNDRA;OWL|").append(i % 6).append(",TIGER|1;LYNX\n");
+        }
+        write(content.toString());
+
+        List<Vote> votes = new ArrayList<>();
+        // Windows smaller than a few lines, so most lines continue in the next window
+        assertEquals(1000, new VoteFileParser(file, 64).parse(votes::add));
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(Integer.valueOf(i), votes.get(i).getTable());
+            assertEquals(Long.valueOf(i % 6), votes.get(i).getStarVote().get(Party.OWL));
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidParty() throws IOException {
+        write("1000;JUNGLE;TIGER|3;DOG\n");
+        new VoteFileParser(file).parse(vote -> { });
+    }
+
+    @Test(expected = IOException.class)
+    public void testMissingField() throws IOException {
+        write("1000;JUNGLE;TIGER\n");
+        new VoteFileParser(file).parse(vote -> { });
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,146 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.client.VoteSender;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.models.VoteResult;
+import org.junit.Test;
+
+import java.rmi.ConnectException;
+import java.rmi.RemoteException;
+import java.rmi.UnmarshalException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class VoteSenderTest {
+
+    @Test
+    public void testCountsEveryVote() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(0, null);
+        try (VoteSender sender = new VoteSender(service, 4, 3, 1)) {
+            for (int i = 0; i < 50; i++) {
+                sender.send(createVotes(10));
+            }
+            sender.awaitCompletion();
+            assertEquals(500, sender.getAccepted());
+            assertEquals(0, sender.getFailed());
+        }
+        assertTrue(service.maxConcurrent.get() <= 4);
+    }
+
+    @Test
+    public void testRetriesCallsNotDelivered() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(2, new ConnectException("Connection refused"));
+        try (VoteSender sender = new VoteSender(service, 1, 3, 1)) {
+            sender.send(createVotes(10));
+            sender.awaitCompletion();
+            assertEquals(10, sender.getAccepted());
+            assertEquals(2, sender.getRetries());
+        }
+    }
+
+    @Test
+    public void testDoesNotRetryCallsThatMayHaveBeenApplied() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(1, new UnmarshalException("Answer lost"));
+        try (VoteSender sender = new VoteSender(service, 1, 3, 1)) {
+            sender.send(createVotes(10));
+            sender.awaitCompletion();
+            assertEquals(0, sender.getAccepted());
+            assertEquals(10, sender.getFailed());
+            assertEquals(0, sender.getRetries());
+        }
+    }
+
+    @Test
+    public void testFailsAfterRetries() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(10, new ConnectException("Connection refused"));
+        try (VoteSender sender = new VoteSender(service, 1, 2, 1)) {
+            sender.send(createVotes(10));
+            sender.awaitCompletion();
+            assertEquals(10, sender.getFailed());
+            assertEquals(3, service.calls.get());
+        }
+    }
+
+    @Test
+    public void testCountsInvalidVotesApart() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(0, null);
+        service.results = Arrays.asList(VoteResult.ACCEPTED, VoteResult.INVALID, VoteResult.REJECTED, VoteResult.INVALID);
+        try (VoteSender sender = new VoteSender(service, 1, 3, 1)) {
+            sender.send(createVotes(4));
+            sender.awaitCompletion();
+            assertEquals(1, sender.getAccepted());
+            assertEquals(1, sender.getRejected());
+            assertEquals(2, sender.getInvalid());
+        }
+    }
+
+    @Test
+    public void testDoesNotRetryUncheckedFailures() throws InterruptedException {
+        FakeVoteService service = new FakeVoteService(1, new IllegalStateException("Bug in the stub"));
+        try (VoteSender sender = new VoteSender(service, 1, 3, 1)) {
+            sender.send(createVotes(10));
+            sender.awaitCompletion();
+            assertEquals(0, sender.getAccepted());
+            assertEquals(10, sender.getFailed());
+            assertEquals(0, sender.getRetries());
+            assertEquals(1, service.calls.get());
+        }
+    }
+
+    private static List<Vote> createVotes(int quantity) {
+        List<Vote> votes = new ArrayList<>();
+        for (int i = 0; i < quantity; i++) {
+            votes.add(new Vote(Province.JUNGLE, 1000, Party.TIGER, Collections.singletonMap(Party.TIGER, 5L), Collections.singletonList(Party.TIGER)));
+        }
+        return votes;
+    }
+
+    /**
+     * Accepts every vote after failing the given amount of calls, with a RemoteException or an unchecked one
+     */
+    private static class FakeVoteService implements VoteService {
+        private final AtomicInteger failures;
+        private final Exception failure;
+        private final AtomicInteger calls = new AtomicInteger();
+        private final AtomicInteger concurrent = new AtomicInteger();
+        private final AtomicInteger maxConcurrent = new AtomicInteger();
+        // Results of every call, every vote is accepted if null
+        private volatile List<VoteResult> results;
+
+        private FakeVoteService(int failures, Exception failure) {
+            this.failures = new AtomicInteger(failures);
+            this.failure = failure;
+        }
+
+        @Override
+        public void emitVote(Vote vote) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public List<VoteResult> emitVotes(List<Vote> votes) throws RemoteException {
+            calls.incrementAndGet();
+            if (failures.getAndDecrement() > 0) {
+                if (failure instanceof RemoteException) throw (RemoteException) failure;
+                throw (RuntimeException) failure;
+            }
+
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            concurrent.decrementAndGet();
+            return results != null ? new ArrayList<>(results) : new ArrayList<>(Collections.nCopies(votes.size(), VoteResult.ACCEPTED));
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class VoteSerializationTest {
+
+    @Test
+    public void testRoundTrip() throws IOException, ClassNotFoundException {
+        Map<Party, Long> starVote = new HashMap<>();
+        starVote.put(Party.TIGER, 5L);
+        starVote.put(Party.OWL, 0L);
+        starVote.put(Party.BUFFALO, 3L);
+        Vote vote = new Vote(Province.TUNDRA, 1002, Party.LYNX, starVote, Arrays.asList(Party.BUFFALO, Party.TIGER, Party.OWL));
+
+        Vote copy = (Vote) deserialize(serialize(vote));
+
+        assertEquals(Province.TUNDRA, copy.getProvince());
+        assertEquals(Integer.valueOf(1002), copy.getTable());
+        assertEquals(Party.LYNX, copy.getFptpVote());
+        assertEquals(starVote, copy.getStarVote());
+        // Approved parties are sent as a set, so they are received in ordinal order
+        assertEquals(Arrays.asList(Party.TIGER, Party.OWL, Party.BUFFALO), copy.getSpavVote());
+    }
+
+    @Test
+    public void testEmptyBallot() throws IOException, ClassNotFoundException {
+        Vote vote = new Vote(Province.JUNGLE, 1000, Party.TIGER, new HashMap<>(), new ArrayList<>());
+
+        Vote copy = (Vote) deserialize(serialize(vote));
+
+        assertTrue(copy.getStarVote().isEmpty());
+        assertTrue(copy.getSpavVote().isEmpty());
+    }
+
+    @Test
+    public void testNullFields() throws IOException, ClassNotFoundException {
+        Vote vote = new Vote(null, null, null, null, null);
+
+        Vote copy = (Vote) deserialize(serialize(vote));
+
+        assertNull(copy.getProvince());
+        assertNull(copy.getTable());
+        assertNull(copy.getFptpVote());
+        assertNull(copy.getStarVote());
+        assertNull(copy.getSpavVote());
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testNullStarParty() throws IOException {
+        serialize(new Vote(Province.JUNGLE, 1000, Party.TIGER, Collections.singletonMap(null, 3L), new ArrayList<>()));
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testNullSpavParty() throws IOException {
+        serialize(new Vote(Province.JUNGLE, 1000, Party.TIGER, new HashMap<>(), Arrays.asList(Party.OWL, null)));
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testScoreOutOfRange() throws IOException {
+        // 256 would wrap to 0 in a byte
+        serialize(new Vote(Province.JUNGLE, 1000, Party.TIGER, Collections.singletonMap(Party.TIGER, 256L), new ArrayList<>()));
+    }
+
+    @Test(expected = InvalidObjectException.class)
+    public void testNegativeScore() throws IOException {
+        serialize(new Vote(Province.JUNGLE, 1000, Party.TIGER, Collections.singletonMap(Party.TIGER, -1L), new ArrayList<>()));
+    }
+
+    @Test
+    public void testCompactBatch() throws IOException {
+        List<Vote> votes = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Map<Party, Long> starVote = new HashMap<>();
+            starVote.put(Party.values()[i % Party.values().length], 4L);
+            votes.add(new Vote(Province.SAVANNAH, 1000 + i, Party.TURTLE, starVote, new ArrayList<>(starVote.keySet())));
+        }
+
+        // Each vote should only take a few bytes after the class descriptor
+        assertTrue(serialize(new ArrayList<>(votes)).length < 100 * 24);
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(o);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
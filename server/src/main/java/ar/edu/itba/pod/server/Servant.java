@@ -1,42 +1,107 @@
 package ar.edu.itba.pod.server;
 
 import ar.edu.itba.pod.*;
-import ar.edu.itba.pod.comparators.DoubleComparator;
 import ar.edu.itba.pod.exceptions.InsufficientWinnersException;
 import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
 import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
 import ar.edu.itba.pod.models.*;
+import ar.edu.itba.pod.server.concurrency.AuditDispatcher;
+import ar.edu.itba.pod.server.concurrency.AuditSubscriber;
+import ar.edu.itba.pod.server.concurrency.CloseElectionTask;
+import ar.edu.itba.pod.server.concurrency.SubscriptionIndex;
+import ar.edu.itba.pod.server.concurrency.VoteGate;
+import ar.edu.itba.pod.server.events.CloseElectionEvent;
+import ar.edu.itba.pod.server.events.EmitVotesEvent;
+import ar.edu.itba.pod.server.events.QueryEvent;
+import ar.edu.itba.pod.server.journal.Checkpointer;
+import ar.edu.itba.pod.server.journal.ElectionSnapshot;
+import ar.edu.itba.pod.server.journal.VoteJournal;
+import ar.edu.itba.pod.server.metrics.ServerTelemetry;
+import ar.edu.itba.pod.server.models.ClosedResults;
+import ar.edu.itba.pod.server.models.FptpAggregates;
 import ar.edu.itba.pod.server.models.NationalElection;
 import ar.edu.itba.pod.server.models.Round;
+import ar.edu.itba.pod.server.models.StarBallot;
 import ar.edu.itba.pod.server.models.StateElection;
 import ar.edu.itba.pod.server.models.Table;
-import org.apache.commons.lang3.tuple.MutablePair;
+import ar.edu.itba.pod.server.models.TableRegistry;
 
+import java.io.IOException;
 import java.rmi.RemoteException;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.stream.Collectors;
-
-public class Servant implements AuditService, ManagementService, VoteService, QueryService {
-    private static final int NUMBER_OF_THREADS = 4;
-    private static final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
-
-    private final Map<Party, Map<Integer, List<PartyVoteHandler>>> auditHandlers = new HashMap<>();
-    private final HashMap<Integer, Table> tables = new HashMap<>();
+import java.util.concurrent.ForkJoinPool;
+
+public class Servant implements AuditService, ManagementService, VoteService, QueryService, MetricsService {
+    // Only modified while PENDING holding the STATE_LOCK, votes read the index built from it when opening
+    private final Map<Party, Map<Integer, List<AuditSubscriber>>> auditHandlers = new HashMap<>();
+    private volatile SubscriptionIndex subscriptions = SubscriptionIndex.EMPTY;
+    private final AuditDispatcher auditDispatcher = new AuditDispatcher();
+    private final TableRegistry tables = new TableRegistry();
     private final StateElection stateElection = new StateElection();
     private final NationalElection nationalElection = new NationalElection();
+    private final FptpAggregates fptpAggregates = new FptpAggregates();
 
     /**
      * Variable to hold the state of the election
+     * Changes are made holding the STATE_LOCK, but it can be read without it
      */
-    private ElectionState electionState = ElectionState.PENDING;
+    private volatile ElectionState electionState = ElectionState.PENDING;
 
     private final String STATE_LOCK = "ELECTION_STATE_LOCK";
 
-    // Will compare first with percentage and then the party
-    private final DoubleComparator doubleComparator = new DoubleComparator();
+    // Packed STAR ballots only use the lowest bits, so it can not be a valid ballot
+    private static final int INVALID_BALLOT = -1;
+
+    /**
+     * Gate that votes go through, it is only open while the election is OPEN
+     */
+    private final VoteGate voteGate = new VoteGate();
+
+    /**
+     * Results built when closing the election, set before the state changes to CLOSED
+     */
+    private volatile ClosedResults closedResults;
+
+    private final ServerTelemetry telemetry = new ServerTelemetry();
+
+    /**
+     * Journal where every change is written before it is acknowledged, null if the election is only kept in memory
+     */
+    private volatile VoteJournal journal;
+
+    /**
+     * Takes the snapshots of the election, which are the only place the audit officers are saved, null if there is no journal
+     */
+    private volatile Checkpointer checkpointer;
+
+    /**
+     * Runs the action holding the STATE_LOCK, counting the time waited for it
+     * @param action Action to run
+     */
+    private void withStateLock(StateLockAction action) throws RemoteException, InvalidElectionStateException {
+        long lockWaitStart = System.nanoTime();
+        synchronized (this.STATE_LOCK) {
+            this.telemetry.stateLockAcquired(lockWaitStart);
+            action.run();
+        }
+    }
+
+    /**
+     * Same as withStateLock, for actions that do not throw checked exceptions
+     * @param action Action to run
+     */
+    private void runWithStateLock(Runnable action) {
+        long lockWaitStart = System.nanoTime();
+        synchronized (this.STATE_LOCK) {
+            this.telemetry.stateLockAcquired(lockWaitStart);
+            action.run();
+        }
+    }
+
+    private interface StateLockAction {
+        void run() throws RemoteException, InvalidElectionStateException;
+    }
 
     //////////////////////////////////////////////////////////////////////////////////////////
     //                                      AUDIT METHODS
@@ -44,65 +109,162 @@ public class Servant implements AuditService, ManagementService, VoteService, Qu
 
     @Override
     public void registerAuditOfficer(Party party, int table, PartyVoteHandler handler) throws RemoteException, InvalidElectionStateException {
-        synchronized (this.STATE_LOCK) {
+        this.withStateLock(() -> {
             // If election is still pending, it can be registered
             if (this.electionState == ElectionState.PENDING) {
                 // Saving the vote handler to notify when new votes on a table for a certain party happen
-                synchronized (auditHandlers) {
-                    auditHandlers.computeIfAbsent(party, p -> new HashMap<>())
-                            .computeIfAbsent(table, t-> new ArrayList<>())
-                            .add(handler);
-                }
+                auditHandlers.computeIfAbsent(party, p -> new HashMap<>())
+                        .computeIfAbsent(table, t-> new ArrayList<>())
+                        .add(this.auditDispatcher.subscribe(handler));
             } else {
                 throw new InvalidElectionStateException("Elections in progress or closed. Can no longer register an audit officer");
             }
+        });
+        // Officers are not in the journal, so the registration is only acknowledged once it is in a snapshot.
+        // It is taken without the STATE_LOCK, since the checkpointer reads the officers holding it
+        Checkpointer checkpointer = this.checkpointer;
+        if (checkpointer != null) {
+            try {
+                checkpointer.checkpoint();
+            } catch (IOException e) {
+                throw new RemoteException("Could not save the registration of the audit officer", e);
+            }
         }
     }
 
-    private void notifyPartyVote(Vote vote) throws RemoteException {
-        Party party = vote.getFptpVote();
-        Integer table = vote.getTable();
+    /**
+     * Queues the vote to be notified to the officers auditing its party and table
+     * Never blocks on the officers, the dispatcher delivers the notifications
+     * @param vote Vote to notify
+     */
+    private void notifyPartyVote(Vote vote) {
+        AuditSubscriber[] subscribers = this.subscriptions.get(vote.getFptpVote(), vote.getTable());
+        // Most votes are not audited, nothing else to do for them
+        if (subscribers == null) return;
 
-        synchronized (this.auditHandlers) {
-            if (this.auditHandlers.containsKey(party) && this.auditHandlers.get(party).containsKey(table)) {
-                for (PartyVoteHandler handler: this.auditHandlers.get(party).get(table)) {
-                    handler.onPartyVote(vote);
-                }
-            }
+        for (AuditSubscriber subscriber : subscribers) {
+            subscriber.offer(vote);
         }
     }
 
+    /**
+     * Reads the officers registered, to save them in a snapshot
+     * Officers evicted by the dispatcher are left out, so they are not registered again when restoring
+     * @return Handlers of the officers for each party and table
+     */
+    public Map<Party, Map<Integer, List<PartyVoteHandler>>> getAuditors() {
+        Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors = new EnumMap<>(Party.class);
+        this.runWithStateLock(() -> {
+            this.auditHandlers.forEach((party, tables) -> tables.forEach((table, subscribers) -> subscribers.forEach(subscriber -> {
+                if (subscriber.isEvicted()) return;
+                auditors.computeIfAbsent(party, p -> new HashMap<>())
+                        .computeIfAbsent(table, t -> new ArrayList<>())
+                        .add(subscriber.getHandler());
+            })));
+        });
+        return auditors;
+    }
+
+    /**
+     * Registers again the officers saved in a snapshot, no matter the state of the election
+     * It is done after replaying the journal, so the votes replayed are not notified again
+     * @param auditors Handlers of the officers for each party and table
+     */
+    public void restoreAuditors(Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors) {
+        this.runWithStateLock(() -> {
+            auditors.forEach((party, tables) -> tables.forEach((table, handlers) -> handlers.forEach(handler ->
+                    this.auditHandlers.computeIfAbsent(party, p -> new HashMap<>())
+                            .computeIfAbsent(table, t -> new ArrayList<>())
+                            .add(this.auditDispatcher.subscribe(handler)))));
+            if (this.electionState != ElectionState.PENDING) {
+                this.subscriptions = SubscriptionIndex.build(this.auditHandlers);
+            }
+        });
+    }
+
+    /**
+     * @return Dispatcher of the audit notifications, to read its counters
+     */
+    public AuditDispatcher getAuditDispatcher() {
+        return auditDispatcher;
+    }
+
     //////////////////////////////////////////////////////////////////////////////////////////
     //                                  MANAGEMENT METHODS
     //////////////////////////////////////////////////////////////////////////////////////////
 
     @Override
     public void openElection() throws RemoteException, InvalidElectionStateException {
-        synchronized (this.STATE_LOCK){
+        this.withStateLock(() -> {
             if (this.electionState != ElectionState.PENDING){
                 throw new InvalidElectionStateException("Elections have already started/finished");
             }
+            this.awaitJournal(this.appendToJournal(VoteJournal::appendOpen));
+            // Registrations are closed from now on, so the subscriptions are frozen before any vote is let in
+            this.subscriptions = SubscriptionIndex.build(this.auditHandlers);
             this.electionState = ElectionState.OPEN;
-        }
+            this.voteGate.open();
+        });
     }
 
     @Override
     public void closeElection() throws RemoteException, InvalidElectionStateException {
-        synchronized (this.STATE_LOCK){
+        CloseElectionEvent event = new CloseElectionEvent();
+        event.begin();
+        long lockWaitStart = System.nanoTime();
+        this.withStateLock(() -> {
+            long drainStart = System.nanoTime();
+            event.lockWait = drainStart - lockWaitStart;
             if (this.electionState != ElectionState.OPEN){
                 throw new InvalidElectionStateException("Elections haven't started or have already finished");
             }
-            this.nationalElection.computeNationalElectionResults();
-            this.stateElection.computeStateElectionResults();
-            this.electionState = ElectionState.CLOSED;
+            // Stop accepting votes and wait for the ones being applied before computing the results
+            this.voteGate.closeAndDrain();
+            // Every vote applied is already in the journal, so the close is written after all of them
+            try {
+                this.awaitJournal(this.appendToJournal(VoteJournal::appendClose));
+            } catch (RemoteException e) {
+                this.voteGate.open();
+                throw e;
+            }
+            event.drainTime = System.nanoTime() - drainStart;
+            this.computeClosedResults();
+        });
+        event.end();
+        if (event.shouldCommit()) {
+            event.tables = this.tables.size();
+            event.ballots = this.nationalElection.getTotalBallots();
+            event.commit();
         }
     }
 
+    /**
+     * Computes the results of the election and closes it, once no more votes can be applied
+     * Must be called holding the STATE_LOCK
+     */
+    private void computeClosedResults() {
+        long closeStart = System.nanoTime();
+        ForkJoinPool.commonPool().invoke(new CloseElectionTask(this.nationalElection, this.stateElection));
+        this.closedResults = ClosedResults.build(this.nationalElection, this.stateElection, this.tables);
+        this.telemetry.closeComputed(System.nanoTime() - closeStart);
+        this.electionState = ElectionState.CLOSED;
+    }
+
     @Override
     public ElectionState getElectionState() throws RemoteException {
-        synchronized (this.STATE_LOCK){
-            return this.electionState;
-        }
+        return this.electionState;
+    }
+
+    @Override
+    public void registerTables(Map<Integer, Province> tables) throws RemoteException, InvalidElectionStateException {
+        this.withStateLock(() -> {
+            // Tables can only be registered before any vote is emitted
+            if (this.electionState != ElectionState.PENDING) {
+                throw new InvalidElectionStateException("Elections in progress or closed. Can no longer register tables");
+            }
+            this.awaitJournal(this.appendToJournal(journal -> journal.appendTables(tables)));
+            this.tables.registerAll(tables);
+        });
     }
 
     //////////////////////////////////////////////////////////////////////////////////////////
@@ -110,38 +272,283 @@ public class Servant implements AuditService, ManagementService, VoteService, Qu
     //////////////////////////////////////////////////////////////////////////////////////////
     
     public void emitVote(Vote vote) throws RemoteException, ExecutionException, InterruptedException, InvalidElectionStateException {
-        // Synchronize the access to the election state
-        synchronized (this.STATE_LOCK) {
-            if (this.electionState != ElectionState.OPEN) {
+        long start = System.nanoTime();
+        EmitVotesEvent event = new EmitVotesEvent();
+        event.begin();
+        try {
+            // Checking the vote before applying it, so it is never applied halfway
+            int starBallot = packIfValid(vote);
+            if (starBallot == INVALID_BALLOT) {
+                this.telemetry.votesRejected(1);
+                throw new IllegalArgumentException("Invalid vote " + vote);
+            }
+            // Votes can only be applied while the gate is open
+            if (!this.voteGate.enter()) {
+                this.telemetry.votesRejected(1);
                 throw new InvalidElectionStateException("Elections haven't started or have already finished");
             }
+            long sequence;
+            try {
+                // The table is only created once the vote is written, so a failed append leaves no trace
+                sequence = this.appendToJournal(journal -> journal.appendVotes(Collections.singletonList(vote)));
+                this.applyVote(this.getOrCreateTable(vote), vote, starBallot);
+            } finally {
+                this.voteGate.exit();
+            }
+            event.applyTime = System.nanoTime() - start;
+            // Acknowledged only once it is durable
+            this.awaitJournal(sequence);
+            event.accepted = true;
+            this.telemetry.votesAccepted(1);
+            this.notifyPartyVote(vote);
+        } finally {
+            this.telemetry.emitVoteFinished(start);
+            commit(event, Collections.singletonList(vote));
+        }
+    }
 
-            // Synchronize access to see if the key exists, perform the emission out of synchronized block
-            synchronized (this.tables) {
-                if (!this.tables.containsKey(vote.getTable())) {
-                    this.tables.put(vote.getTable(), new Table(vote.getTable(), vote.getProvince()));
+    @Override
+    public List<VoteResult> emitVotes(List<Vote> votes) throws RemoteException {
+        long start = System.nanoTime();
+        EmitVotesEvent event = new EmitVotesEvent();
+        event.begin();
+        try {
+            // Checking every vote before applying any, so an invalid vote only fails itself
+            List<VoteResult> results = new ArrayList<>(votes.size());
+            int[] starBallots = new int[votes.size()];
+            List<Vote> validVotes = new ArrayList<>(votes.size());
+            for (int i = 0; i < votes.size(); i++) {
+                starBallots[i] = packIfValid(votes.get(i));
+                if (starBallots[i] == INVALID_BALLOT) {
+                    results.add(VoteResult.INVALID);
+                } else {
+                    results.add(VoteResult.ACCEPTED);
+                    validVotes.add(votes.get(i));
                 }
             }
 
-            // Emit the vote for the table
-            this.tables.get(vote.getTable()).emitVote(vote.getFptpVote());
-
-            // Processing the SPAV vote for the state election
-            this.stateElection.emitVote(vote.getProvince(), vote.getSpavVote());
+            // Going through the gate only once for the whole batch
+            if (!this.voteGate.enter()) {
+                this.telemetry.votesRejected(votes.size());
+                // The malformed votes are still reported as invalid, only the valid ones are rejected
+                for (int i = 0; i < votes.size(); i++) {
+                    if (starBallots[i] != INVALID_BALLOT) {
+                        results.set(i, VoteResult.REJECTED);
+                    }
+                }
+                return results;
+            }
 
-            // Processing the STAR vote for the national election
-            this.nationalElection.emitVote(vote.getStarVote());
-        }
-        // Creating the runnable task
-        Runnable notify = () -> {
+            long sequence;
             try {
-                // Notify the vote
+                // The valid votes are written before creating any table or applying any vote, so if the journal
+                // fails nothing is left that a replay would not rebuild.
+                // It is done inside the gate, so every vote is written before the close
+                sequence = validVotes.isEmpty() ? 0 : this.appendToJournal(journal -> journal.appendVotes(validVotes));
+                Table table = null;
+                for (int i = 0; i < votes.size(); i++) {
+                    if (starBallots[i] == INVALID_BALLOT) continue;
+                    Vote vote = votes.get(i);
+                    // Votes of a batch usually come from the same table, only look it up when it changes
+                    if (table == null || !table.getID().equals(vote.getTable())) {
+                        table = this.getOrCreateTable(vote);
+                    }
+                    this.applyVote(table, vote, starBallots[i]);
+                }
+            } finally {
+                this.voteGate.exit();
+            }
+            event.applyTime = System.nanoTime() - start;
+            // Acknowledged only once they are durable, the batches being written meanwhile share the same sync
+            this.awaitJournal(sequence);
+            event.accepted = true;
+            this.telemetry.votesAccepted(validVotes.size());
+            this.telemetry.votesRejected(votes.size() - validVotes.size());
+            for (Vote vote : validVotes) {
                 this.notifyPartyVote(vote);
-            } catch (RemoteException e) {
-                // Notification will no succeed
             }
-        };
-        executor.submit(notify);
+
+            return results;
+        } finally {
+            this.telemetry.emitVotesFinished(start);
+            commit(event, votes);
+        }
+    }
+
+    /**
+     * Ends the event of a call to emit votes and commits it if it is enabled
+     * @param event Event of the call
+     * @param votes Votes of the call
+     */
+    private static void commit(EmitVotesEvent event, List<Vote> votes) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.votes = votes.size();
+            if (!votes.isEmpty()) {
+                Vote first = votes.get(0);
+                event.table = first.getTable() == null ? -1 : first.getTable();
+                event.province = first.getProvince() == null ? null : first.getProvince().name();
+            }
+            event.commit();
+        }
+    }
+
+    /**
+     * Sets the journal where every change is written from now on
+     * Must be called before the servant is exported, once the journal replayed its records into it
+     * @param journal Journal to write to
+     */
+    public void setJournal(VoteJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Sets the checkpointer that saves the audit officers, every registration from now on takes a snapshot
+     * @param checkpointer Checkpointer of the journal of the servant
+     */
+    public void setCheckpointer(Checkpointer checkpointer) {
+        this.checkpointer = checkpointer;
+    }
+
+    /**
+     * Appends a record to the journal, if there is one
+     * @param append Appends the record to the journal
+     * @return Sequence of the record, 0 if there is no journal
+     * @throws RemoteException if the journal can not be written
+     */
+    private long appendToJournal(JournalAppend append) throws RemoteException {
+        VoteJournal journal = this.journal;
+        if (journal == null) return 0;
+        try {
+            return append.append(journal);
+        } catch (IOException e) {
+            throw new RemoteException("Could not write to the journal", e);
+        }
+    }
+
+    /**
+     * Waits until the record is durable, if there is a journal
+     * @param sequence Sequence of the record, 0 if there is no journal
+     * @throws RemoteException if the record could not be written
+     */
+    private void awaitJournal(long sequence) throws RemoteException {
+        if (sequence == 0) return;
+        try {
+            this.journal.awaitDurable(sequence);
+        } catch (IOException e) {
+            throw new RemoteException("Could not write to the journal", e);
+        }
+    }
+
+    private interface JournalAppend {
+        long append(VoteJournal journal) throws IOException;
+    }
+
+    /**
+     * Reads the aggregated state of the election
+     * Votes must not be emitted meanwhile, it is used on the copy of the election the Checkpointer keeps
+     * @param journalLength Length of the journal applied to the servant
+     * @return Snapshot of the election
+     */
+    public ElectionSnapshot snapshot(long journalLength) {
+        Map<Integer, Province> tables = new HashMap<>();
+        Map<Integer, long[]> tableVotes = new HashMap<>();
+        this.tables.stream().forEach(table -> {
+            tables.put(table.getID(), table.getProvince());
+            tableVotes.put(table.getID(), table.getVotes());
+        });
+
+        Map<Province, long[]> approvals = new EnumMap<>(Province.class);
+        for (Province province : Province.values()) {
+            approvals.put(province, this.stateElection.getApprovals(province));
+        }
+
+        return new ElectionSnapshot(journalLength, this.electionState, tables, tableVotes,
+                this.nationalElection.getBallotCounts(), approvals, this.getAuditors());
+    }
+
+    /**
+     * Restores the election from a snapshot, except for the audit officers
+     * Must be called on a new servant, before it is exported and before it has a journal
+     * @param snapshot Snapshot of the election
+     */
+    public void restore(ElectionSnapshot snapshot) {
+        this.runWithStateLock(() -> {
+            if (this.electionState != ElectionState.PENDING || this.tables.size() != 0) {
+                throw new IllegalStateException("Snapshots can only be restored on a new election");
+            }
+
+            this.tables.registerAll(snapshot.getTables());
+            snapshot.getTableVotes().forEach((id, votes) -> {
+                Table table = this.tables.get(id);
+                for (Party party : Party.values()) {
+                    long partyVotes = votes[party.ordinal()];
+                    if (partyVotes == 0) continue;
+                    table.emitVotes(party, partyVotes);
+                    this.fptpAggregates.emitVotes(table.getProvince(), party, partyVotes);
+                }
+            });
+            snapshot.getBallots().forEach(this.nationalElection::emitVotes);
+            snapshot.getApprovals().forEach((province, histogram) -> {
+                for (int mask = 0; mask < histogram.length; mask++) {
+                    if (histogram[mask] != 0) this.stateElection.emitVotes(province, mask, histogram[mask]);
+                }
+            });
+
+            if (snapshot.getElectionState() == ElectionState.OPEN) {
+                this.electionState = ElectionState.OPEN;
+                this.voteGate.open();
+            } else if (snapshot.getElectionState() == ElectionState.CLOSED) {
+                this.computeClosedResults();
+            }
+        });
+    }
+
+    /**
+     * Obtains the table of the vote, creating it if it is the first vote of the table
+     * Must be called inside the vote gate
+     * @param vote Vote to obtain the table for
+     * @return Table where the vote was emitted
+     */
+    private Table getOrCreateTable(Vote vote) {
+        return this.tables.getOrCreate(vote.getTable(), vote.getProvince());
+    }
+
+    /**
+     * Checks that the vote has every field and valid STAR scores, so applying it can not fail
+     * @param vote Vote to check
+     * @return Packed STAR vote, INVALID_BALLOT if the vote is not valid
+     */
+    private static int packIfValid(Vote vote) {
+        if (vote == null || vote.getProvince() == null || vote.getTable() == null || vote.getFptpVote() == null
+                || vote.getStarVote() == null || vote.getSpavVote() == null || vote.getSpavVote().contains(null)) {
+            return INVALID_BALLOT;
+        }
+        for (Map.Entry<Party, Long> score : vote.getStarVote().entrySet()) {
+            if (score.getKey() == null || score.getValue() == null || score.getValue() < 0 || score.getValue() > StarBallot.MAX_SCORE) {
+                return INVALID_BALLOT;
+            }
+        }
+        return StarBallot.pack(vote.getStarVote());
+    }
+
+    /**
+     * Applies the vote to the table and the state and national elections
+     * Must be called inside the vote gate, with a vote already checked by packIfValid
+     * @param table Table where the vote was emitted
+     * @param vote Vote to be applied
+     * @param starBallot Packed STAR vote
+     */
+    private void applyVote(Table table, Vote vote, int starBallot) {
+        // Emit the vote for the table, and for the province of the table and the nation
+        table.emitVote(vote.getFptpVote());
+        this.fptpAggregates.emitVote(table.getProvince(), vote.getFptpVote());
+
+        // Processing the SPAV vote for the state election
+        this.stateElection.emitVote(vote.getProvince(), vote.getSpavVote());
+
+        // Processing the STAR vote for the national election
+        this.nationalElection.emitVote(starBallot);
     }
 
     //////////////////////////////////////////////////////////////////////////////////////////
@@ -150,25 +557,28 @@ public class Servant implements AuditService, ManagementService, VoteService, Qu
 
     @Override
     public ElectionResults getNationalResults() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
-        ElectionState electionState;
-        // In order to avoid locking the whole if blocks, I pass the value of the election to a local variable
-        synchronized (this.STATE_LOCK) {
-            electionState = ElectionState.fromValue(this.electionState.name());
+        // Reading the state only once, so that the whole query works with the same value
+        ElectionState electionState = this.electionState;
+        QueryEvent event = new QueryEvent("getNationalResults");
+        event.begin();
+        ElectionResults results = null;
+        try {
+            return results = this.nationalResults(electionState);
+        } finally {
+            event.finish(electionState, results);
         }
+    }
 
+    private ElectionResults nationalResults(ElectionState electionState) throws InvalidElectionStateException, NoVotesRegisteredException {
         if(electionState == ElectionState.OPEN) {
             return this.getAllTableResults(electionState);
 
         } else if(electionState == ElectionState.CLOSED) {
-            Party winner = this.nationalElection.getNationalElectionWinner();
-            if (winner == null) {
+            NationalElectionsResult results = this.closedResults.getNational();
+            if (results == null) {
                 throw new NoVotesRegisteredException();
             }
-            return new NationalElectionsResult(
-                    this.nationalElection.getSortedScoringRoundResults(),
-                    this.nationalElection.getSortedAutomaticRunoffResults(),
-                    winner
-            );
+            return results;
         }
 
         // Elections have not began
@@ -177,28 +587,31 @@ public class Servant implements AuditService, ManagementService, VoteService, Qu
 
     @Override
     public ElectionResults getProvinceResults(Province province) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
-        ElectionState electionState;
-
-        // In order to avoid locking the whole if blocks, I pass the value of the election to a local variable
-        synchronized (this.STATE_LOCK) {
-            electionState = ElectionState.fromValue(this.electionState.name());
+        // Reading the state only once, so that the whole query works with the same value
+        ElectionState electionState = this.electionState;
+        QueryEvent event = new QueryEvent("getProvinceResults", province);
+        event.begin();
+        ElectionResults results = null;
+        try {
+            return results = this.provinceResults(province, electionState);
+        } finally {
+            event.finish(electionState, results);
         }
+    }
 
+    private ElectionResults provinceResults(Province province, ElectionState electionState) throws InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
         if(electionState == ElectionState.OPEN) {
             return this.getProvinceTableResults(province, electionState);
         }
         else if(electionState == ElectionState.CLOSED){
-            if(this.stateElection.getFirstRound(province).size() == 0)
+            StateElectionsResult results = this.closedResults.getProvince(province);
+            if(!results.hasVotes())
                 throw new NoVotesRegisteredException();
 
-            if(this.stateElection.getWinners(province).length != Round.values().length)
+            if(results.getWinners().length != Round.values().length)
                 throw new InsufficientWinnersException();
 
-            return new StateElectionsResult(province,
-                    this.stateElection.getFirstRound(province),
-                    this.stateElection.getSecondRound(province),
-                    this.stateElection.getThirdRound(province),
-                    this.stateElection.getWinners(province));
+            return results;
         }
 
         throw new InvalidElectionStateException("Elections PENDING. Can not request state results");
@@ -206,62 +619,145 @@ public class Servant implements AuditService, ManagementService, VoteService, Qu
 
     @Override
     public ElectionResults getTableResults(Integer tableID) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
-        ElectionState electionState;
-
-        // In order to avoid locking the whole if blocks, I pass the value of the election to a local variable
-        synchronized (this.STATE_LOCK) {
-            electionState = ElectionState.fromValue(this.electionState.name());
+        // Reading the state only once, so that the whole query works with the same value
+        ElectionState electionState = this.electionState;
+        QueryEvent event = new QueryEvent("getTableResults", tableID);
+        event.begin();
+        ElectionResults results = null;
+        try {
+            return results = this.tableResults(tableID, electionState);
+        } finally {
+            event.finish(electionState, results);
         }
+    }
 
+    private ElectionResults tableResults(Integer tableID, ElectionState electionState) throws InvalidElectionStateException, NoVotesRegisteredException {
         if(electionState != ElectionState.PENDING){
-            synchronized (this.tables) {
-                if (!this.tables.containsKey(tableID)) {
-                    throw new IllegalArgumentException("Table with id " + tableID + " does not exist.");
-                }
+            Table table = this.tables.get(tableID);
+            if (table == null) {
+                throw new IllegalArgumentException("Table with id " + tableID + " does not exist.");
             }
 
-            return new FPTPResult(tables.get(tableID).getResultsFromTable(), electionState);
+            if(electionState == ElectionState.CLOSED) {
+                FPTPResult results = this.closedResults.getTable(tableID);
+                if (results == null) {
+                    throw new NoVotesRegisteredException();
+                }
+                return results;
+            }
+            return new FPTPResult(table.getPercentages(), electionState);
         }
         throw new InvalidElectionStateException("Elections PENDING. Can not request FPTP results");
     }
 
-    // Will only be called when getNationalResults is called and elections are still open
-    private ElectionResults getAllTableResults(ElectionState electionState) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
-        Map<Party, Long> fptpVotes;
-        synchronized (this.tables) {
-            fptpVotes = this.tables.values().stream()
-                    .flatMap(t -> t.getVotes().entrySet().stream())
-                    .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.summingLong(e -> e.getValue().get())));
+    @Override
+    public ElectionResults getProvisionalNationalResults() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        // Reading the state only once, so that the whole query works with the same value
+        ElectionState electionState = this.electionState;
+        QueryEvent event = new QueryEvent("getProvisionalNationalResults");
+        event.begin();
+        ElectionResults results = null;
+        try {
+            return results = this.provisionalNationalResults(electionState);
+        } finally {
+            event.finish(electionState, results);
         }
+    }
+
+    private ElectionResults provisionalNationalResults(ElectionState electionState) throws InvalidElectionStateException, NoVotesRegisteredException {
+        if(electionState == ElectionState.OPEN) {
+            // Computed from the running tallies, votes keep being applied meanwhile
+            NationalElectionsResult results = this.nationalElection.computeResults();
+            if (results == null) {
+                throw new NoVotesRegisteredException();
+            }
+            return results;
 
-        return newElectionResults(fptpVotes, electionState);
+        } else if(electionState == ElectionState.CLOSED) {
+            return this.nationalResults(electionState);
+        }
+
+        throw new InvalidElectionStateException("Elections PENDING. Can not request national results");
     }
 
-    // Will only be called when getProvinceResults is called and elections are still open
-    private ElectionResults getProvinceTableResults(Province province, ElectionState electionState) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
-        Map<Party, Long> fptpVotes;
-        synchronized (this.tables) {
-            fptpVotes = this.tables.values().stream()
-                    .filter(t -> t.getProvince().equals(province))
-                    .flatMap(t -> t.getVotes().entrySet().stream())
-                    .collect(Collectors.groupingBy(Map.Entry::getKey, Collectors.summingLong(e -> e.getValue().get())));
+    @Override
+    public ElectionResults getProvisionalProvinceResults(Province province) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        // Reading the state only once, so that the whole query works with the same value
+        ElectionState electionState = this.electionState;
+        QueryEvent event = new QueryEvent("getProvisionalProvinceResults", province);
+        event.begin();
+        ElectionResults results = null;
+        try {
+            return results = this.provisionalProvinceResults(province, electionState);
+        } finally {
+            event.finish(electionState, results);
         }
+    }
+
+    private ElectionResults provisionalProvinceResults(Province province, ElectionState electionState) throws InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        if(electionState == ElectionState.OPEN) {
+            // Computed from the running histogram of the province, votes keep being applied meanwhile
+            StateElectionsResult results = this.stateElection.computeResults(province);
+            if(!results.hasVotes())
+                throw new NoVotesRegisteredException();
+
+            if(results.getWinners().length != Round.values().length)
+                throw new InsufficientWinnersException();
 
-        return newElectionResults(fptpVotes, electionState);
+            return results;
+
+        } else if(electionState == ElectionState.CLOSED) {
+            return this.provinceResults(province, electionState);
+        }
+
+        throw new InvalidElectionStateException("Elections PENDING. Can not request state results");
     }
 
-    private ElectionResults newElectionResults(Map<Party, Long> fptpVotes, ElectionState electionState) throws NoVotesRegisteredException {
-        boolean noVotes = fptpVotes.entrySet().stream().allMatch(e -> e.getValue() == 0L);
+    // Will only be called when getNationalResults is called and elections are still open
+    private ElectionResults getAllTableResults(ElectionState electionState) throws NoVotesRegisteredException {
+        return newElectionResults(this.fptpAggregates.getNationalVotes(), electionState);
+    }
+
+    // Will only be called when getProvinceResults is called and elections are still open
+    private ElectionResults getProvinceTableResults(Province province, ElectionState electionState) throws NoVotesRegisteredException {
+        return newElectionResults(this.fptpAggregates.getProvinceVotes(province), electionState);
+    }
+
+    private ElectionResults newElectionResults(long[] fptpVotes, ElectionState electionState) throws NoVotesRegisteredException {
+        double totalVotes = (double) Arrays.stream(fptpVotes).sum();
         // Error if there are no votes
-        if(noVotes) {
+        if(totalVotes == 0) {
             throw new NoVotesRegisteredException();
         }
 
-        double totalVotes = (double) fptpVotes.values().stream().reduce(0L, Long::sum);
+        double[] percentages = new double[fptpVotes.length];
+        for (int i = 0; i < fptpVotes.length; i++) {
+            percentages[i] = ((double) fptpVotes[i] / totalVotes) * 100.0;
+        }
 
-        TreeSet<MutablePair<Party, Double>> fptpResult = new TreeSet<>(this.doubleComparator);
-        fptpVotes.forEach((key, value) -> fptpResult.add(new MutablePair<>(key, (((double) value / totalVotes)) * 100.0)));
+        return new FPTPResult(percentages, electionState);
+    }
 
-        return new FPTPResult(fptpResult, electionState);
+    //////////////////////////////////////////////////////////////////////////////////////////
+    //                                      METRICS METHODS
+    //////////////////////////////////////////////////////////////////////////////////////////
+
+    @Override
+    public ServerMetrics getMetrics() throws RemoteException {
+        ServerMetrics metrics = new ServerMetrics();
+        metrics.setElectionState(this.electionState);
+        this.telemetry.fill(metrics);
+
+        metrics.setAuditQueueDepth(this.auditDispatcher.getLag());
+        metrics.setAuditDelivered(this.auditDispatcher.getDelivered());
+        metrics.setAuditDropped(this.auditDispatcher.getDropped());
+        metrics.setAuditFailed(this.auditDispatcher.getFailed());
+        metrics.setAuditEvicted(this.auditDispatcher.getEvicted());
+
+        metrics.setTables(this.tables.size());
+        metrics.setRetainedBallots(this.nationalElection.getTotalBallots());
+        metrics.setDistinctBallots(this.nationalElection.getDistinctBallots());
+        metrics.setEstimatedHeapBytes(ServerTelemetry.estimateHeapBytes(metrics.getTables(), metrics.getDistinctBallots()));
+        return metrics;
     }
 }
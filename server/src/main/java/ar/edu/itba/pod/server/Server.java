@@ -2,11 +2,18 @@ package ar.edu.itba.pod.server;
 
 import ar.edu.itba.pod.AuditService;
 import ar.edu.itba.pod.ManagementService;
+import ar.edu.itba.pod.MetricsService;
 import ar.edu.itba.pod.QueryService;
 import ar.edu.itba.pod.VoteService;
+import ar.edu.itba.pod.server.journal.Checkpointer;
+import ar.edu.itba.pod.server.journal.ElectionSnapshot;
+import ar.edu.itba.pod.server.journal.VoteJournal;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.rmi.AlreadyBoundException;
 import java.rmi.Remote;
 import java.rmi.RemoteException;
@@ -17,9 +24,43 @@ import java.rmi.server.UnicastRemoteObject;
 public class Server {
     private static final Logger LOG = LoggerFactory.getLogger(Server.class);
 
+    /*
+     * Timeout of the calls made by the server to the audit officers, so a dead officer can not keep a
+     * dispatcher thread waiting forever. It can be overridden with -D when starting the server.
+     */
+    private static final String RESPONSE_TIMEOUT_KEY = "sun.rmi.transport.tcp.responseTimeout";
+    private static final String CALLBACK_TIMEOUT_MILLIS = "5000";
+
+    /*
+     * Path of the journal of the election, given with -Djournal=path. If there is one, the election is
+     * rebuilt from it when starting and every change is written to it before being acknowledged.
+     */
+    private static final String JOURNAL_KEY = "journal";
+
+    /*
+     * Seconds between the snapshots of the election, given with -DsnapshotInterval=seconds, 0 to take none periodically.
+     * They are written next to the journal, and restarting replays only the journal written after the last one.
+     * A snapshot is also taken every time an audit officer registers, and when the server stops.
+     */
+    private static final String SNAPSHOT_INTERVAL_KEY = "snapshotInterval";
+    private static final long DEFAULT_SNAPSHOT_INTERVAL_SECONDS = 60;
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
     public static void main(final String[] args) throws RemoteException {
+        // Must be set before the RMI runtime reads it
+        if (System.getProperty(RESPONSE_TIMEOUT_KEY) == null) System.setProperty(RESPONSE_TIMEOUT_KEY, CALLBACK_TIMEOUT_MILLIS);
+
         // Creating the instance of the servant and exporting it
         final Servant gs = new Servant();
+        final String journalPath = System.getProperty(JOURNAL_KEY);
+        if (journalPath != null) {
+            try {
+                openJournal(gs, Paths.get(journalPath));
+            } catch (IOException | NumberFormatException e) {
+                LOG.error("Could not open the journal at {}", journalPath, e);
+                return;
+            }
+        }
         final Remote remote = UnicastRemoteObject.exportObject(gs, 0);
 
         // Binding the services to the interface names
@@ -28,5 +69,52 @@ public class Server {
         registry.rebind(ManagementService.class.getName(), remote);
         registry.rebind(QueryService.class.getName(), remote);
         registry.rebind(AuditService.class.getName(), remote);
+        registry.rebind(MetricsService.class.getName(), remote);
+        LOG.info("Election server bound, metrics are served by {}", MetricsService.class.getName());
+    }
+
+    /**
+     * Rebuilds the election from the last snapshot and the journal written after it, and sets the
+     * journal to the servant
+     * @param gs Servant, not exported yet
+     * @param journalPath Path of the journal
+     * @throws IOException if the journal can not be read
+     */
+    private static void openJournal(final Servant gs, final Path journalPath) throws IOException {
+        final Path snapshotPath = journalPath.resolveSibling(journalPath.getFileName() + SNAPSHOT_SUFFIX);
+        final long snapshotInterval = Long.parseLong(System.getProperty(SNAPSHOT_INTERVAL_KEY, String.valueOf(DEFAULT_SNAPSHOT_INTERVAL_SECONDS)));
+
+        ElectionSnapshot snapshot;
+        try {
+            snapshot = ElectionSnapshot.read(snapshotPath);
+        } catch (IOException e) {
+            // The journal has every record, the snapshot only saves replaying them. Its officers are lost
+            LOG.warn("Could not read the snapshot at {}, replaying the whole journal", snapshotPath, e);
+            snapshot = null;
+        }
+        if (snapshot != null) {
+            gs.restore(snapshot);
+            LOG.info("Restored the snapshot of the first {} bytes of the journal", snapshot.getJournalLength());
+        }
+        // Replaying into the servant before it has the journal, so the records are not written again
+        final VoteJournal journal = VoteJournal.open(journalPath, snapshot == null ? 0 : snapshot.getJournalLength(), gs, gs);
+        gs.setJournal(journal);
+        // Officers are restored last, so they are not notified again of the votes replayed
+        if (snapshot != null) gs.restoreAuditors(snapshot.getAuditors());
+
+        // The checkpointer is always needed, the audit officers are only saved in the snapshots
+        final Checkpointer checkpointer = new Checkpointer(journal, journalPath, snapshotPath, snapshot, gs);
+        gs.setCheckpointer(checkpointer);
+        if (snapshotInterval > 0) checkpointer.start(snapshotInterval);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                journal.close();
+                // Taking a last snapshot once every record is on disk, so the next start replays nothing
+                checkpointer.close();
+            } catch (IOException e) {
+                LOG.error("Could not close the journal", e);
+            }
+        }));
     }
 }
@@ -0,0 +1,98 @@
+package ar.edu.itba.pod.server.concurrency;
+
+import ar.edu.itba.pod.PartyVoteHandler;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Notifies the audit officers without blocking the ones emitting the votes.
+ * Each officer gets its own AuditSubscriber with a bounded queue, and a small pool of threads
+ * delivers the queued votes, so a slow or dead officer only delays its own notifications.
+ */
+public class AuditDispatcher {
+    public static final int DEFAULT_THREADS = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 10_000;
+    public static final int DEFAULT_MAX_CONSECUTIVE_FAILURES = 3;
+    // Votes delivered to an officer in a single call
+    public static final int DEFAULT_MAX_BATCH = 256;
+    // Time the first vote of a batch waits for others before being delivered
+    public static final long DEFAULT_LINGER_MILLIS = 50;
+
+    private final ScheduledExecutorService executor;
+    private final int queueCapacity;
+    private final int maxConsecutiveFailures;
+    private final int maxBatch;
+    private final long lingerMillis;
+
+    // The same officer can audit many tables and parties, but it has a single queue
+    private final Map<PartyVoteHandler, AuditSubscriber> subscribers = new ConcurrentHashMap<>();
+
+    public AuditDispatcher() {
+        this(DEFAULT_THREADS, DEFAULT_QUEUE_CAPACITY, DEFAULT_MAX_CONSECUTIVE_FAILURES, DEFAULT_MAX_BATCH, DEFAULT_LINGER_MILLIS);
+    }
+
+    public AuditDispatcher(int threads, int queueCapacity, int maxConsecutiveFailures, int maxBatch, long lingerMillis) {
+        this.executor = Executors.newScheduledThreadPool(threads, runnable -> {
+            // Notifications are best effort, they should not keep the server alive
+            Thread thread = new Thread(runnable, "audit-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.queueCapacity = queueCapacity;
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+        this.maxBatch = maxBatch;
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Obtains the subscriber of an officer, creating it the first time the officer registers
+     * @param handler Handler of the officer
+     * @return Subscriber to queue the votes to notify
+     */
+    public AuditSubscriber subscribe(PartyVoteHandler handler) {
+        return this.subscribers.computeIfAbsent(handler,
+                h -> new AuditSubscriber(h, this.executor, this.queueCapacity, this.maxConsecutiveFailures, this.maxBatch, this.lingerMillis));
+    }
+
+    /**
+     * @return Amount of votes that were not notified, because the queue was full or the officer was evicted
+     */
+    public long getDropped() {
+        return this.subscribers.values().stream().mapToLong(AuditSubscriber::getDropped).sum();
+    }
+
+    /**
+     * @return Amount of votes waiting to be notified
+     */
+    public long getLag() {
+        return this.subscribers.values().stream().mapToLong(AuditSubscriber::getLag).sum();
+    }
+
+    /**
+     * @return Amount of votes notified
+     */
+    public long getDelivered() {
+        return this.subscribers.values().stream().mapToLong(AuditSubscriber::getDelivered).sum();
+    }
+
+    /**
+     * @return Amount of votes whose notification failed
+     */
+    public long getFailed() {
+        return this.subscribers.values().stream().mapToLong(AuditSubscriber::getFailed).sum();
+    }
+
+    /**
+     * @return Amount of officers evicted for failing repeatedly
+     */
+    public long getEvicted() {
+        return this.subscribers.values().stream().filter(AuditSubscriber::isEvicted).count();
+    }
+
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+}
@@ -0,0 +1,160 @@
+package ar.edu.itba.pod.server.concurrency;
+
+import ar.edu.itba.pod.PartyVoteHandler;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.server.events.AuditNotificationEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivers the notifications of a single audit officer.
+ * Votes are queued in a bounded queue and delivered by the dispatcher threads, at most one thread
+ * delivers to the same officer at a time so the notifications keep the order they were queued in.
+ * Votes are coalesced, the first queued vote waits up to the linger time for others to be delivered
+ * with it in a single call, unless a full batch is queued before.
+ * If the queue is full the vote is dropped instead of blocking the one who emitted it, and an
+ * officer that keeps failing is evicted.
+ */
+public class AuditSubscriber {
+    private static final Logger LOG = LoggerFactory.getLogger(AuditSubscriber.class);
+
+    private final PartyVoteHandler handler;
+    private final BlockingQueue<Vote> queue;
+    private final ScheduledExecutorService executor;
+    private final int maxConsecutiveFailures;
+    private final int maxBatch;
+    private final long lingerMillis;
+
+    // Set while a task is delivering or about to deliver the queued votes
+    private final AtomicBoolean scheduled = new AtomicBoolean(false);
+    private volatile boolean evicted = false;
+    // Only modified by the thread delivering the votes
+    private int consecutiveFailures = 0;
+
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    AuditSubscriber(PartyVoteHandler handler, ScheduledExecutorService executor, int queueCapacity,
+                    int maxConsecutiveFailures, int maxBatch, long lingerMillis) {
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.executor = executor;
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+        this.maxBatch = maxBatch;
+        this.lingerMillis = lingerMillis;
+    }
+
+    /**
+     * Queues a vote to be notified, never blocks
+     * @param vote Vote to notify
+     * @return true if the vote was queued, false if it was dropped
+     */
+    public boolean offer(Vote vote) {
+        if (this.evicted || !this.queue.offer(vote)) {
+            this.dropped.increment();
+            return false;
+        }
+        if (this.scheduled.compareAndSet(false, true)) {
+            // Waiting for more votes, unless there are enough for a batch already
+            if (this.lingerMillis > 0 && this.queue.size() < this.maxBatch) {
+                this.executor.schedule(this::drain, this.lingerMillis, TimeUnit.MILLISECONDS);
+            } else {
+                this.executor.execute(this::drain);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Delivers a batch of votes, and schedules itself again if there are votes left
+     * Delivering a batch at a time lets the other officers use the dispatcher threads
+     */
+    private void drain() {
+        try {
+            List<Vote> batch = new ArrayList<>(Math.min(this.maxBatch, this.queue.size()));
+            this.queue.drainTo(batch, this.maxBatch);
+            if (!batch.isEmpty() && !this.evicted) {
+                this.deliver(batch);
+            }
+        } finally {
+            this.scheduled.set(false);
+        }
+        // Votes left, or queued after draining but before releasing the flag, already waited enough
+        if (!this.evicted && !this.queue.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+            this.executor.execute(this::drain);
+        }
+    }
+
+    private void deliver(List<Vote> batch) {
+        AuditNotificationEvent event = new AuditNotificationEvent();
+        event.begin();
+        try {
+            this.handler.onPartyVotes(batch);
+            this.delivered.add(batch.size());
+            this.consecutiveFailures = 0;
+            event.delivered = true;
+        } catch (RemoteException e) {
+            this.failed.add(batch.size());
+            if (++this.consecutiveFailures >= this.maxConsecutiveFailures) {
+                this.evict(e);
+            }
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.votes = batch.size();
+                event.queued = this.queue.size();
+                event.commit();
+            }
+        }
+    }
+
+    private void evict(RemoteException cause) {
+        this.evicted = true;
+        LOG.warn("Audit officer evicted after {} consecutive failed notifications: {}", this.consecutiveFailures, cause.getMessage());
+        // Votes still queued will never be delivered
+        while (this.queue.poll() != null) {
+            this.dropped.increment();
+        }
+    }
+
+    public PartyVoteHandler getHandler() {
+        return handler;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    /**
+     * @return Amount of votes waiting to be notified
+     */
+    public int getLag() {
+        return this.queue.size();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return Amount of votes whose notification failed
+     */
+    public long getFailed() {
+        return failed.sum();
+    }
+}
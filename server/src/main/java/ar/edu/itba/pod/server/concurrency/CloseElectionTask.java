@@ -0,0 +1,36 @@
+package ar.edu.itba.pod.server.concurrency;
+
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.server.models.NationalElection;
+import ar.edu.itba.pod.server.models.StateElection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes the results of the election when it is closed.
+ * The national election and each province are independent, so each one is computed in its own fork-join task.
+ */
+public class CloseElectionTask extends RecursiveAction {
+    private static final long serialVersionUID = 6049541718238916547L;
+
+    private final NationalElection nationalElection;
+    private final StateElection stateElection;
+
+    public CloseElectionTask(NationalElection nationalElection, StateElection stateElection) {
+        this.nationalElection = nationalElection;
+        this.stateElection = stateElection;
+    }
+
+    @Override
+    protected void compute() {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        tasks.add(ForkJoinTask.adapt(this.nationalElection::computeNationalElectionResults));
+        for (Province province : Province.values()) {
+            tasks.add(ForkJoinTask.adapt(() -> this.stateElection.computeStateElectionResults(province)));
+        }
+        invokeAll(tasks);
+    }
+}
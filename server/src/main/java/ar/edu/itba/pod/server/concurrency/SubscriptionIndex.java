@@ -0,0 +1,66 @@
+package ar.edu.itba.pod.server.concurrency;
+
+import ar.edu.itba.pod.models.Party;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Immutable index of the audit subscriptions, by party and table.
+ * Registrations are only allowed before the election opens, so the index is built once when it
+ * opens and read without locking afterwards. Looking up a table without subscribers does not allocate.
+ */
+public class SubscriptionIndex {
+    public static final SubscriptionIndex EMPTY = new SubscriptionIndex(new int[Party.values().length][], new AuditSubscriber[Party.values().length][][]);
+
+    // Indexed by party ordinal, sorted ids of the audited tables and the subscribers of each of them
+    private final int[][] tables;
+    private final AuditSubscriber[][][] subscribers;
+
+    private SubscriptionIndex(int[][] tables, AuditSubscriber[][][] subscribers) {
+        this.tables = tables;
+        this.subscribers = subscribers;
+    }
+
+    /**
+     * Builds the index from the registered subscriptions
+     * @param subscriptions Subscribers of each table for each party
+     * @return Index with a copy of the subscriptions
+     */
+    public static SubscriptionIndex build(Map<Party, Map<Integer, List<AuditSubscriber>>> subscriptions) {
+        int[][] tables = new int[Party.values().length][];
+        AuditSubscriber[][][] subscribers = new AuditSubscriber[Party.values().length][][];
+
+        subscriptions.forEach((party, partySubscriptions) -> {
+            // Sorting by table id for the binary search
+            TreeMap<Integer, List<AuditSubscriber>> sorted = new TreeMap<>(partySubscriptions);
+            int[] partyTables = new int[sorted.size()];
+            AuditSubscriber[][] partySubscribers = new AuditSubscriber[sorted.size()][];
+            int i = 0;
+            for (Map.Entry<Integer, List<AuditSubscriber>> entry : sorted.entrySet()) {
+                partyTables[i] = entry.getKey();
+                partySubscribers[i++] = entry.getValue().toArray(new AuditSubscriber[0]);
+            }
+            tables[party.ordinal()] = partyTables;
+            subscribers[party.ordinal()] = partySubscribers;
+        });
+        return new SubscriptionIndex(tables, subscribers);
+    }
+
+    /**
+     * Obtains the subscribers of a party on a table
+     * @param party Party of the vote
+     * @param table Id of the table
+     * @return Subscribers, null if there are none. The array must not be modified
+     */
+    public AuditSubscriber[] get(Party party, int table) {
+        if (party == null) return null;
+        int[] partyTables = this.tables[party.ordinal()];
+        if (partyTables == null) return null;
+
+        int index = Arrays.binarySearch(partyTables, table);
+        return index >= 0 ? this.subscribers[party.ordinal()][index] : null;
+    }
+}
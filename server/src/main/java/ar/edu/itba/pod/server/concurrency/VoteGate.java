@@ -0,0 +1,61 @@
+package ar.edu.itba.pod.server.concurrency;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gate that votes must go through to be applied, without taking any lock.
+ * Every vote that enters the gate is counted, and counted again when it exits. Closing the gate
+ * stops new votes from entering and waits until all the votes that had already entered exit,
+ * so no vote is applied once the close has finished.
+ */
+public class VoteGate {
+    /**
+     * Both counters only grow, so reading exited before entered can never report a vote as
+     * finished while it is still being applied
+     */
+    private final LongAdder entered = new LongAdder();
+    private final LongAdder exited = new LongAdder();
+
+    private volatile boolean open = false;
+
+    /**
+     * Lets votes enter the gate
+     */
+    public void open() {
+        this.open = true;
+    }
+
+    /**
+     * Tries to enter the gate, if the vote is let in, exit must be called once it has been applied
+     * @return true if the vote can be applied, false if the gate is closed
+     */
+    public boolean enter() {
+        this.entered.increment();
+        if (!this.open) {
+            this.exited.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Marks a vote that entered the gate as applied
+     */
+    public void exit() {
+        this.exited.increment();
+    }
+
+    /**
+     * Closes the gate and waits until every vote that entered has exited
+     */
+    public void closeAndDrain() {
+        this.open = false;
+
+        long exitedVotes, enteredVotes;
+        do {
+            Thread.yield();
+            exitedVotes = this.exited.sum();
+            enteredVotes = this.entered.sum();
+        } while (exitedVotes != enteredVotes);
+    }
+}
@@ -0,0 +1,23 @@
+package ar.edu.itba.pod.server.events;
+
+import jdk.jfr.*;
+
+/**
+ * Delivery of a batch of votes to an audit officer, the duration is the remote call
+ */
+@Name("ar.edu.itba.pod.AuditNotification")
+@Label("Audit Notification")
+@Category({"Elections", "Audit"})
+@StackTrace(false)
+public class AuditNotificationEvent extends Event {
+    @Label("Votes")
+    @Description("Amount of votes delivered in the call")
+    public int votes;
+
+    @Label("Queued")
+    @Description("Votes still waiting to be delivered to the officer")
+    public int queued;
+
+    @Label("Delivered")
+    public boolean delivered;
+}
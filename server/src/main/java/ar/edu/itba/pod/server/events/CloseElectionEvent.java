@@ -0,0 +1,28 @@
+package ar.edu.itba.pod.server.events;
+
+import jdk.jfr.*;
+
+/**
+ * Close of the elections, the duration goes from the call until the results are ready
+ */
+@Name("ar.edu.itba.pod.CloseElection")
+@Label("Close Election")
+@Category({"Elections", "Results"})
+@StackTrace(false)
+public class CloseElectionEvent extends Event {
+    @Label("Lock Wait")
+    @Description("Time waiting for the lock of the election state")
+    @Timespan(Timespan.NANOSECONDS)
+    public long lockWait;
+
+    @Label("Drain Time")
+    @Description("Time waiting for the votes being applied to finish")
+    @Timespan(Timespan.NANOSECONDS)
+    public long drainTime;
+
+    @Label("Tables")
+    public long tables;
+
+    @Label("Ballots")
+    public long ballots;
+}
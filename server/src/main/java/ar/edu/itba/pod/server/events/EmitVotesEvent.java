@@ -0,0 +1,31 @@
+package ar.edu.itba.pod.server.events;
+
+import jdk.jfr.*;
+
+/**
+ * Call to emit one or many votes, the duration is the whole call
+ */
+@Name("ar.edu.itba.pod.EmitVotes")
+@Label("Emit Votes")
+@Category({"Elections", "Votes"})
+@StackTrace(false)
+public class EmitVotesEvent extends Event {
+    @Label("Votes")
+    @Description("Amount of votes of the call")
+    public int votes;
+
+    @Label("Table")
+    @Description("Table of the first vote of the call")
+    public int table;
+
+    @Label("Province")
+    public String province;
+
+    @Label("Accepted")
+    public boolean accepted;
+
+    @Label("Apply Time")
+    @Description("Time spent inside the vote gate, applying the votes and appending them to the journal")
+    @Timespan(Timespan.NANOSECONDS)
+    public long applyTime;
+}
@@ -0,0 +1,60 @@
+package ar.edu.itba.pod.server.events;
+
+import ar.edu.itba.pod.models.ElectionResults;
+import ar.edu.itba.pod.models.ElectionState;
+import ar.edu.itba.pod.models.Province;
+import jdk.jfr.*;
+
+/**
+ * Query of results, the duration is the whole query without sending the results
+ */
+@Name("ar.edu.itba.pod.Query")
+@Label("Query")
+@Category({"Elections", "Queries"})
+@StackTrace(false)
+public class QueryEvent extends Event {
+    @Label("Query")
+    public String query;
+
+    @Label("Province")
+    public String province;
+
+    @Label("Table")
+    @Description("Table queried, -1 if the query is not for a table")
+    public int table = -1;
+
+    @Label("Election State")
+    public String state;
+
+    @Label("Answered")
+    @Description("Whether results were returned instead of an error")
+    public boolean answered;
+
+    public QueryEvent(String query) {
+        this.query = query;
+    }
+
+    public QueryEvent(String query, Province province) {
+        this(query);
+        this.province = province == null ? null : province.name();
+    }
+
+    public QueryEvent(String query, Integer table) {
+        this(query);
+        this.table = table == null ? -1 : table;
+    }
+
+    /**
+     * Ends the event and commits it if it is enabled
+     * @param state State of the election during the query
+     * @param results Results returned, null if the query failed
+     */
+    public void finish(ElectionState state, ElectionResults results) {
+        this.end();
+        if (this.shouldCommit()) {
+            this.state = state.name();
+            this.answered = results != null;
+            this.commit();
+        }
+    }
+}
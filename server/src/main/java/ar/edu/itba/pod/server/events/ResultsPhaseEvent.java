@@ -0,0 +1,28 @@
+package ar.edu.itba.pod.server.events;
+
+import jdk.jfr.*;
+
+/**
+ * Phase of the computation of the results, either when closing the elections or for provisional results
+ */
+@Name("ar.edu.itba.pod.ResultsPhase")
+@Label("Results Phase")
+@Category({"Elections", "Results"})
+@StackTrace(false)
+public class ResultsPhaseEvent extends Event {
+    public static final String NATIONAL_SCORING = "National scoring round";
+    public static final String NATIONAL_RUNOFF = "National automatic runoff";
+    public static final String PROVINCE_ROUNDS = "Province SPAV rounds";
+    public static final String CLOSED_RESULTS = "Building closed results";
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Province")
+    @Description("Province of the phase, only for the state election")
+    public String province;
+
+    public ResultsPhaseEvent(String phase) {
+        this.phase = phase;
+    }
+}
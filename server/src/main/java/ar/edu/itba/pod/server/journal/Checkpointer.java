@@ -0,0 +1,142 @@
+package ar.edu.itba.pod.server.journal;
+
+import ar.edu.itba.pod.PartyVoteHandler;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.server.Servant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Takes snapshots of the election in the background, so restarting only has to replay the journal
+ * written after the last one.
+ * The servant receiving the votes is never read nor paused to take them: the checkpointer keeps its
+ * own copy of the election, and applies to it the records of the journal that are already durable.
+ * That copy always matches a complete prefix of the journal, so it is written along with its length.
+ * Only the audit officers are read from the servant, since they are not in the journal. For them to
+ * be durable, the servant takes a snapshot every time an officer registers.
+ */
+public class Checkpointer implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(Checkpointer.class);
+
+    private final VoteJournal journal;
+    private final FileChannel reader;
+    private final Path snapshotPath;
+    private final Servant servant;
+    // Copy of the election, only used by the thread taking the snapshots
+    private final Servant shadow = new Servant();
+    private final ScheduledExecutorService executor;
+
+    // Length of the journal applied to the copy, and the length and officers of the last snapshot written
+    private long position;
+    private long snapshotPosition;
+    private Map<Party, Map<Integer, List<PartyVoteHandler>>> snapshotAuditors = Collections.emptyMap();
+    private volatile boolean failed = false;
+
+    /**
+     * @param journal Journal of the servant
+     * @param journalPath Path of the journal
+     * @param snapshotPath Path where the snapshots are written
+     * @param snapshot Snapshot the servant was restored from, null if there was none
+     * @param servant Servant receiving the votes
+     * @throws IOException if the journal can not be read
+     */
+    public Checkpointer(VoteJournal journal, Path journalPath, Path snapshotPath, ElectionSnapshot snapshot, Servant servant) throws IOException {
+        this.journal = journal;
+        this.reader = FileChannel.open(journalPath, StandardOpenOption.READ);
+        this.snapshotPath = snapshotPath;
+        this.servant = servant;
+        if (snapshot != null) {
+            this.shadow.restore(snapshot);
+            this.position = this.snapshotPosition = snapshot.getJournalLength();
+            this.snapshotAuditors = snapshot.getAuditors();
+        }
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "election-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Takes a snapshot periodically
+     * @param intervalSeconds Seconds between snapshots
+     */
+    public void start(long intervalSeconds) {
+        this.executor.scheduleWithFixedDelay(this::checkpointQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void checkpointQuietly() {
+        // The error was already logged, no more snapshots can be taken
+        if (this.failed) return;
+        try {
+            this.checkpoint();
+        } catch (IOException e) {
+            LOG.error("Could not take a snapshot of the election", e);
+        }
+    }
+
+    /**
+     * Applies the durable records of the journal to the copy of the election and writes a snapshot of
+     * it, unless nothing changed since the last one
+     * @throws IOException if the journal can not be read, the snapshot can not be written, or a previous
+     * snapshot failed to apply the journal
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (this.failed) throw new IOException("The copy of the election failed to apply the journal, no more snapshots can be taken");
+
+        long durable = this.journal.getDurableLength();
+        if (durable > this.position) {
+            try {
+                this.position = VoteJournal.replay(this.reader, this.position, durable, this.shadow, this.shadow);
+            } catch (IOException | RuntimeException e) {
+                // The copy may have applied part of a record, it can no longer be trusted
+                this.failed = true;
+                throw new IOException("Could not apply the journal to the copy of the election, no more snapshots will be taken", e);
+            }
+        }
+
+        Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors = this.servant.getAuditors();
+        // Officers register and are evicted without writing to the journal, so they are compared too
+        if (this.position == this.snapshotPosition && auditors.equals(this.snapshotAuditors)) return;
+
+        ElectionSnapshot snapshot = this.shadow.snapshot(this.position).withAuditors(auditors);
+
+        long start = System.nanoTime();
+        snapshot.write(this.snapshotPath);
+        this.snapshotPosition = this.position;
+        this.snapshotAuditors = auditors;
+        LOG.info("Snapshot of the first {} bytes of the journal written in {} ms", this.position, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Stops taking snapshots and takes a last one, must be called after the journal is closed
+     * @throws IOException if the last snapshot can not be written
+     */
+    @Override
+    public void close() throws IOException {
+        this.executor.shutdown();
+        try {
+            this.executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (!this.failed) this.checkpoint();
+        } finally {
+            this.shadow.getAuditDispatcher().shutdown();
+            this.reader.close();
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package ar.edu.itba.pod.server.journal;
+
+import ar.edu.itba.pod.PartyVoteHandler;
+import ar.edu.itba.pod.models.ElectionState;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.rmi.MarshalledObject;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Aggregated state of the election at some point of the journal: its state, the votes of each table,
+ * the tallies of the national and state elections, and the audit officers registered.
+ * Restoring it and replaying the journal after that point rebuilds the election, so restarting takes
+ * as long as the snapshot is large instead of as long as the amount of votes.
+ *
+ * The file has the journal length, the state, the tables with the votes of the parties voted on them,
+ * the count of each distinct STAR ballot, the count of each set of approved parties of each province
+ * and the handlers of the officers, followed by a CRC32 of all of it. Counts of 0 are not written.
+ */
+public class ElectionSnapshot {
+    private static final Logger LOG = LoggerFactory.getLogger(ElectionSnapshot.class);
+
+    private final long journalLength;
+    private final ElectionState electionState;
+    private final Map<Integer, Province> tables;
+    // Votes of each table, indexed by the party ordinal
+    private final Map<Integer, long[]> tableVotes;
+    // Votes of each distinct ballot packed with StarBallot
+    private final Map<Integer, Long> ballots;
+    // Votes of each province, indexed by the mask of approved parties
+    private final Map<Province, long[]> approvals;
+    private final Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors;
+
+    public ElectionSnapshot(long journalLength, ElectionState electionState, Map<Integer, Province> tables,
+                            Map<Integer, long[]> tableVotes, Map<Integer, Long> ballots, Map<Province, long[]> approvals,
+                            Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors) {
+        this.journalLength = journalLength;
+        this.electionState = electionState;
+        this.tables = tables;
+        this.tableVotes = tableVotes;
+        this.ballots = ballots;
+        this.approvals = approvals;
+        this.auditors = auditors;
+    }
+
+    /**
+     * @param auditors Audit officers registered
+     * @return Copy of the snapshot with the given officers instead
+     */
+    public ElectionSnapshot withAuditors(Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors) {
+        return new ElectionSnapshot(this.journalLength, this.electionState, this.tables, this.tableVotes, this.ballots, this.approvals, auditors);
+    }
+
+    /**
+     * @return Length of the journal included in the snapshot, the records after it are not
+     */
+    public long getJournalLength() {
+        return journalLength;
+    }
+
+    public ElectionState getElectionState() {
+        return electionState;
+    }
+
+    public Map<Integer, Province> getTables() {
+        return tables;
+    }
+
+    public Map<Integer, long[]> getTableVotes() {
+        return tableVotes;
+    }
+
+    public Map<Integer, Long> getBallots() {
+        return ballots;
+    }
+
+    public Map<Province, long[]> getApprovals() {
+        return approvals;
+    }
+
+    public Map<Party, Map<Integer, List<PartyVoteHandler>>> getAuditors() {
+        return auditors;
+    }
+
+    /**
+     * @return Amount of registrations of audit officers
+     */
+    public int getAuditorsCount() {
+        return countAuditors(this.auditors);
+    }
+
+    static int countAuditors(Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors) {
+        return auditors.values().stream().flatMap(tables -> tables.values().stream()).mapToInt(List::size).sum();
+    }
+
+    /**
+     * Writes the snapshot, replacing the previous one only once it is completely on disk
+     * @param path Path of the snapshot
+     * @throws IOException if the snapshot can not be written
+     */
+    public void write(Path path) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        DataOutputStream out = new DataOutputStream(bytes);
+
+        out.writeLong(this.journalLength);
+        out.writeByte(this.electionState.ordinal());
+
+        out.writeInt(this.tables.size());
+        for (Map.Entry<Integer, Province> table : this.tables.entrySet()) {
+            long[] votes = this.tableVotes.get(table.getKey());
+            out.writeInt(table.getKey());
+            out.writeByte(table.getValue().ordinal());
+            // Only the parties voted on the table are written, marked on a mask
+            int voted = 0;
+            for (int i = 0; i < votes.length; i++) {
+                if (votes[i] != 0) voted |= 1 << i;
+            }
+            out.writeByte(voted);
+            for (long partyVotes : votes) {
+                if (partyVotes != 0) out.writeLong(partyVotes);
+            }
+        }
+
+        out.writeInt(this.ballots.size());
+        for (Map.Entry<Integer, Long> ballot : this.ballots.entrySet()) {
+            out.writeInt(ballot.getKey());
+            out.writeLong(ballot.getValue());
+        }
+
+        for (Province province : Province.values()) {
+            long[] histogram = this.approvals.get(province);
+            out.writeInt((int) Arrays.stream(histogram).filter(votes -> votes != 0).count());
+            for (int mask = 0; mask < histogram.length; mask++) {
+                if (histogram[mask] != 0) {
+                    out.writeByte(mask);
+                    out.writeLong(histogram[mask]);
+                }
+            }
+        }
+
+        this.writeAuditors(out);
+
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray(), 0, bytes.size());
+        out.writeInt((int) crc.getValue());
+        out.flush();
+
+        Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(path.toAbsolutePath().getParent());
+    }
+
+    /**
+     * Forces the entries of a directory to disk, so a rename in it is not lost on a crash
+     * @param directory Directory to force
+     * @throws IOException if the directory can not be forced
+     */
+    private static void forceDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (AccessDeniedException e) {
+            // Directories can not be opened on some platforms, like Windows, the rename is all that can be done
+            LOG.debug("Could not force the directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private void writeAuditors(DataOutputStream out) throws IOException {
+        List<byte[]> handlers = new ArrayList<>();
+        List<Party> parties = new ArrayList<>();
+        List<Integer> tables = new ArrayList<>();
+        for (Map.Entry<Party, Map<Integer, List<PartyVoteHandler>>> party : this.auditors.entrySet()) {
+            for (Map.Entry<Integer, List<PartyVoteHandler>> table : party.getValue().entrySet()) {
+                for (PartyVoteHandler handler : table.getValue()) {
+                    try {
+                        // Marshalling replaces the handlers exported by this process with their stubs
+                        ByteArrayOutputStream handlerBytes = new ByteArrayOutputStream();
+                        try (ObjectOutputStream handlerOut = new ObjectOutputStream(handlerBytes)) {
+                            handlerOut.writeObject(new MarshalledObject<>(handler));
+                        }
+                        handlers.add(handlerBytes.toByteArray());
+                        parties.add(party.getKey());
+                        tables.add(table.getKey());
+                    } catch (IOException e) {
+                        LOG.warn("Audit officer of {} on table {} can not be saved in the snapshot: {}", party.getKey(), table.getKey(), e.getMessage());
+                    }
+                }
+            }
+        }
+
+        out.writeInt(handlers.size());
+        for (int i = 0; i < handlers.size(); i++) {
+            out.writeByte(parties.get(i).ordinal());
+            out.writeInt(tables.get(i));
+            out.writeInt(handlers.get(i).length);
+            out.write(handlers.get(i));
+        }
+    }
+
+    /**
+     * Reads a snapshot
+     * @param path Path of the snapshot
+     * @return Snapshot read, null if there is none
+     * @throws IOException if the snapshot can not be read or is corrupt
+     */
+    public static ElectionSnapshot read(Path path) throws IOException {
+        if (!Files.exists(path)) return null;
+
+        byte[] bytes = Files.readAllBytes(path);
+        if (bytes.length < 4) throw new IOException("Snapshot at " + path + " is incomplete");
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        if ((int) crc.getValue() != ByteBuffer.wrap(bytes, bytes.length - 4, 4).getInt()) {
+            throw new IOException("Snapshot at " + path + " is corrupt");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        Party[] parties = Party.values();
+        Province[] provinces = Province.values();
+
+        long journalLength = in.readLong();
+        ElectionState electionState = ElectionState.values()[in.readByte()];
+
+        Map<Integer, Province> tables = new HashMap<>();
+        Map<Integer, long[]> tableVotes = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            int id = in.readInt();
+            tables.put(id, provinces[in.readByte()]);
+            int voted = in.readByte();
+            long[] votes = new long[parties.length];
+            for (int party = 0; party < votes.length; party++) {
+                if ((voted & (1 << party)) != 0) votes[party] = in.readLong();
+            }
+            tableVotes.put(id, votes);
+        }
+
+        Map<Integer, Long> ballots = new HashMap<>();
+        for (int i = in.readInt(); i > 0; i--) {
+            ballots.put(in.readInt(), in.readLong());
+        }
+
+        Map<Province, long[]> approvals = new EnumMap<>(Province.class);
+        for (Province province : provinces) {
+            long[] histogram = new long[1 << parties.length];
+            for (int i = in.readInt(); i > 0; i--) {
+                histogram[in.readUnsignedByte()] = in.readLong();
+            }
+            approvals.put(province, histogram);
+        }
+
+        Map<Party, Map<Integer, List<PartyVoteHandler>>> auditors = new EnumMap<>(Party.class);
+        for (int i = in.readInt(); i > 0; i--) {
+            Party party = parties[in.readByte()];
+            int table = in.readInt();
+            byte[] handler = new byte[in.readInt()];
+            in.readFully(handler);
+            try (ObjectInputStream handlerIn = new ObjectInputStream(new ByteArrayInputStream(handler))) {
+                @SuppressWarnings("unchecked")
+                MarshalledObject<PartyVoteHandler> marshalled = (MarshalledObject<PartyVoteHandler>) handlerIn.readObject();
+                auditors.computeIfAbsent(party, p -> new HashMap<>())
+                        .computeIfAbsent(table, t -> new ArrayList<>())
+                        .add(marshalled.get());
+            } catch (ClassNotFoundException e) {
+                throw new IOException("Audit officer of the snapshot can not be read", e);
+            }
+        }
+
+        return new ElectionSnapshot(journalLength, electionState, tables, tableVotes, ballots, approvals, auditors);
+    }
+}
@@ -0,0 +1,410 @@
+package ar.edu.itba.pod.server.journal;
+
+import ar.edu.itba.pod.ManagementService;
+import ar.edu.itba.pod.VoteService;
+import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.models.VoteResult;
+import ar.edu.itba.pod.server.models.StarBallot;
+import ar.edu.itba.pod.server.models.StateElection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of everything that changes the election, so it can be rebuilt after a crash.
+ * Appending only copies the record to a buffer. A single writer thread writes everything appended
+ * since its previous write and forces it to disk once, so concurrent calls share the same fsync
+ * (group commit). Callers wait until their record is durable before answering.
+ *
+ * Each record is an int with the length of the payload, an int with its CRC32 and the payload, which
+ * starts with a byte with the type of the record. A record cut by a crash fails its checksum, so it is
+ * dropped when the journal is opened. Only the last records can be cut, so a record that fails its
+ * checksum with anything but zeros after it is corruption, and the journal can not be opened.
+ * Records are only read back when opening the journal, and by the Checkpointer, which only reads what
+ * is already durable.
+ */
+public class VoteJournal implements Closeable {
+    private static final Logger LOG = LoggerFactory.getLogger(VoteJournal.class);
+
+    private static final byte TABLES = 1;
+    private static final byte OPEN = 2;
+    private static final byte VOTES = 3;
+    private static final byte CLOSE = 4;
+
+    private static final int HEADER_BYTES = 8;
+    // Table, province, FPTP vote, packed STAR ballot and SPAV approval mask
+    private static final int VOTE_BYTES = 11;
+
+    private final FileChannel channel;
+    private final Thread writer;
+
+    // Records appended and not yet written, swapped with the buffer being written
+    private final Object appendLock = new Object();
+    private RecordBuffer pending = new RecordBuffer();
+    private RecordBuffer writing = new RecordBuffer();
+    private long appended = 0;
+    private volatile boolean closed = false;
+
+    private final Object durableLock = new Object();
+    private long durable = 0;
+    private volatile IOException failure;
+    // Length of the journal that is on disk, only written by the writer
+    private volatile long durableLength;
+
+    private VoteJournal(FileChannel channel, long length) {
+        this.channel = channel;
+        this.durableLength = length;
+        this.writer = new Thread(this::writeLoop, "vote-journal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Opens the journal, replaying the records already in it into the given services first.
+     * The services must not have a journal while replaying, so the records are not appended again.
+     * @param path Path to the journal, created if it does not exist
+     * @param management Service the tables and the changes of state are replayed into
+     * @param votes Service the votes are replayed into
+     * @return Journal ready to append after the replayed records
+     * @throws IOException if the journal can not be read or written, or its records can not be replayed
+     */
+    public static VoteJournal open(Path path, ManagementService management, VoteService votes) throws IOException {
+        return open(path, 0, management, votes);
+    }
+
+    /**
+     * Opens the journal, replaying the records after the given length into the given services first.
+     * Used after restoring a snapshot, so only the records after the snapshot are replayed.
+     * @param path Path to the journal, created if it does not exist
+     * @param from Length of the journal already in the services
+     * @param management Service the tables and the changes of state are replayed into
+     * @param votes Service the votes are replayed into
+     * @return Journal ready to append after the replayed records
+     * @throws IOException if the journal can not be read or written, or its records can not be replayed
+     */
+    public static VoteJournal open(Path path, long from, ManagementService management, VoteService votes) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (from > channel.size()) {
+                throw new IOException("The journal has " + channel.size() + " bytes, but " + from + " were already restored");
+            }
+            long valid = replay(channel, from, channel.size(), management, votes);
+            LOG.info("Replayed {} bytes of the journal after byte {}", valid - from, from);
+            if (valid < channel.size()) {
+                LOG.warn("Dropping {} bytes of a record cut at the end of the journal", channel.size() - valid);
+                channel.truncate(valid);
+                channel.force(true);
+            }
+            channel.position(valid);
+            return new VoteJournal(channel, valid);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Replays the records of the journal between the given positions into the services
+     * @param channel Journal, its position is moved
+     * @param from Position of the first record
+     * @param to Position where reading stops
+     * @return Position after the last record that was complete
+     * @throws IOException if a record can not be replayed, or a record that is not the last one is corrupt
+     */
+    static long replay(FileChannel channel, long from, long to, ManagementService management, VoteService votes) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(from)), 1 << 16));
+        CRC32 crc = new CRC32();
+        byte[] payload = new byte[1024];
+        long valid = from, records = 0;
+
+        while (valid + HEADER_BYTES <= to) {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            // Cut while being written, nothing was written after it
+            if (length > 0 && valid + HEADER_BYTES + length > to) break;
+            if (length <= 0) {
+                checkTornTail(in, valid, valid + HEADER_BYTES, to);
+                break;
+            }
+
+            if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+            in.readFully(payload, 0, length);
+            crc.reset();
+            crc.update(payload, 0, length);
+            if ((int) crc.getValue() != checksum) {
+                checkTornTail(in, valid, valid + HEADER_BYTES + length, to);
+                break;
+            }
+
+            try {
+                replayRecord(ByteBuffer.wrap(payload, 0, length), management, votes);
+            } catch (InvalidElectionStateException e) {
+                throw new IOException("Record " + records + " after byte " + from + " of the journal is not valid in the state of the election", e);
+            }
+            valid += HEADER_BYTES + length;
+            records++;
+        }
+        return valid;
+    }
+
+    /**
+     * Checks that a record that is not valid was cut by a crash: a write that was cut can leave its
+     * records incomplete or filled with zeros, but never followed by other records
+     * @param in Journal, positioned after the record
+     * @param record Position of the record
+     * @param position Position of the stream
+     * @param to Position where reading stops
+     * @throws IOException if there is anything but zeros after the record
+     */
+    private static void checkTornTail(DataInputStream in, long record, long position, long to) throws IOException {
+        for (; position < to; position++) {
+            if (in.readByte() != 0) {
+                throw new IOException("Record at byte " + record + " of the journal is corrupt and is followed by more records");
+            }
+        }
+    }
+
+    private static void replayRecord(ByteBuffer record, ManagementService management, VoteService votes) throws IOException, InvalidElectionStateException {
+        byte type = record.get();
+        switch (type) {
+            case TABLES:
+                Map<Integer, Province> tables = new HashMap<>();
+                for (int i = record.getInt(); i > 0; i--) {
+                    tables.put(record.getInt(), Province.values()[record.get()]);
+                }
+                management.registerTables(tables);
+                break;
+            case OPEN:
+                management.openElection();
+                break;
+            case CLOSE:
+                management.closeElection();
+                break;
+            case VOTES:
+                List<Vote> batch = decodeVotes(record);
+                List<VoteResult> results = votes.emitVotes(batch);
+                if (results.contains(VoteResult.REJECTED)) {
+                    throw new InvalidElectionStateException("Votes of the journal were rejected");
+                }
+                // Only valid votes are written, so any other result means the record is corrupt
+                if (results.stream().anyMatch(result -> result != VoteResult.ACCEPTED)) {
+                    throw new IOException("Votes of the journal were not accepted: " + results);
+                }
+                break;
+            default:
+                throw new IOException("Unknown record type " + type + " in the journal");
+        }
+    }
+
+    /**
+     * Appends the registration of tables
+     * @param tables Map of table id to the province of the table
+     * @return Sequence of the record, to wait until it is durable
+     * @throws IOException if the journal failed or was closed
+     */
+    public long appendTables(Map<Integer, Province> tables) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + tables.size() * 5);
+        record.put(TABLES).putInt(tables.size());
+        tables.forEach((id, province) -> record.putInt(id).put((byte) province.ordinal()));
+        return this.append(record.array());
+    }
+
+    /**
+     * Appends the opening of the elections
+     * @return Sequence of the record, to wait until it is durable
+     * @throws IOException if the journal failed or was closed
+     */
+    public long appendOpen() throws IOException {
+        return this.append(new byte[]{OPEN});
+    }
+
+    /**
+     * Appends the closing of the elections, must be appended after every vote of the election
+     * @return Sequence of the record, to wait until it is durable
+     * @throws IOException if the journal failed or was closed
+     */
+    public long appendClose() throws IOException {
+        return this.append(new byte[]{CLOSE});
+    }
+
+    /**
+     * Appends a batch of votes, they must have been applied already so they are known to be valid
+     * @param votes Votes to append
+     * @return Sequence of the record, to wait until it is durable
+     * @throws IOException if the journal failed or was closed
+     */
+    public long appendVotes(List<Vote> votes) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(1 + 4 + votes.size() * VOTE_BYTES);
+        record.put(VOTES).putInt(votes.size());
+        for (Vote vote : votes) {
+            record.putInt(vote.getTable())
+                    .put((byte) vote.getProvince().ordinal())
+                    .put((byte) vote.getFptpVote().ordinal())
+                    .putInt(StarBallot.pack(vote.getStarVote()))
+                    .put((byte) StateElection.approvalMask(vote.getSpavVote()));
+        }
+        return this.append(record.array());
+    }
+
+    private static List<Vote> decodeVotes(ByteBuffer record) {
+        Party[] parties = Party.values();
+        int count = record.getInt();
+        List<Vote> votes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int table = record.getInt();
+            byte province = record.get();
+            byte fptpVote = record.get();
+            int starBallot = record.getInt();
+            int approvalMask = record.get();
+
+            List<Party> spavVote = new ArrayList<>();
+            for (Party party : parties) {
+                if ((approvalMask & (1 << party.ordinal())) != 0) spavVote.add(party);
+            }
+            votes.add(new Vote(Province.values()[province], table, parties[fptpVote], StarBallot.unpack(starBallot), spavVote));
+        }
+        return votes;
+    }
+
+    private long append(byte[] payload) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(payload, 0, payload.length);
+
+        synchronized (this.appendLock) {
+            this.checkUsable();
+            this.pending.writeRecord(payload, (int) crc.getValue());
+            this.appendLock.notify();
+            return ++this.appended;
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence, and every record before it, is on disk
+     * @param sequence Sequence of the record
+     * @throws IOException if the journal failed before the record was written
+     * @throws InterruptedIOException if interrupted while waiting
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        synchronized (this.durableLock) {
+            while (this.durable < sequence) {
+                // Closing writes every record appended before, so only a failure can keep it from being written
+                if (this.failure != null) throw new IOException("The journal failed before the record was written", this.failure);
+                try {
+                    this.durableLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for the journal");
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Length of the journal that is on disk, every record before it is complete
+     */
+    public long getDurableLength() {
+        return this.durableLength;
+    }
+
+    private void checkUsable() throws IOException {
+        if (this.failure != null) throw new IOException("The journal failed, no more records can be written", this.failure);
+        if (this.closed) throw new IOException("The journal is closed");
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                long sequence;
+                synchronized (this.appendLock) {
+                    while (this.pending.size() == 0 && !this.closed) {
+                        this.appendLock.wait();
+                    }
+                    if (this.pending.size() == 0) return;
+
+                    // Swapping the buffers, so appending goes on while the records are written
+                    RecordBuffer records = this.pending;
+                    this.pending = this.writing;
+                    this.writing = records;
+                    sequence = this.appended;
+                }
+
+                this.writing.writeTo(this.channel);
+                this.channel.force(false);
+                this.writing.reset();
+                this.durableLength = this.channel.position();
+
+                synchronized (this.durableLock) {
+                    this.durable = sequence;
+                    this.durableLock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            LOG.error("Could not write to the journal, votes will no longer be accepted", e);
+            this.failure = e;
+        } catch (InterruptedException e) {
+            this.failure = new InterruptedIOException("Journal writer interrupted");
+        }
+        // Waking up the ones waiting, they will find the failure
+        synchronized (this.durableLock) {
+            this.durableLock.notifyAll();
+        }
+    }
+
+    /**
+     * Writes every record appended so far and closes the journal
+     * @throws IOException if the journal can not be closed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this.appendLock) {
+            this.closed = true;
+            this.appendLock.notify();
+        }
+        try {
+            this.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        this.channel.close();
+    }
+
+    /**
+     * Buffer of records that exposes its array to write it without copying
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        private RecordBuffer() {
+            super(1 << 16);
+        }
+
+        private void writeRecord(byte[] payload, int checksum) {
+            this.writeInt(payload.length);
+            this.writeInt(checksum);
+            this.write(payload, 0, payload.length);
+        }
+
+        private void writeInt(int value) {
+            this.write(value >>> 24);
+            this.write(value >>> 16);
+            this.write(value >>> 8);
+            this.write(value);
+        }
+
+        private void writeTo(FileChannel channel) throws IOException {
+            ByteBuffer buffer = ByteBuffer.wrap(this.buf, 0, this.count);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package ar.edu.itba.pod.server.metrics;
+
+import ar.edu.itba.pod.metrics.LatencyHistogram;
+import ar.edu.itba.pod.models.ServerMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics recorded by the servant as it works.
+ * Recording only adds to striped counters, so it does not add contention to the vote path.
+ */
+public class ServerTelemetry {
+    /*
+     * Approximate heap used by the tallies, for the estimate of the footprint:
+     *  - each distinct national ballot is an entry of a concurrent map, with a boxed key and a LongAdder
+     *  - each table has a LongAdder per party, plus an entry of a concurrent map if it was not registered
+     *  - the state histograms have a LongAdder for each set of approved parties on each province
+     */
+    private static final long BYTES_PER_DISTINCT_BALLOT = 96;
+    private static final long BYTES_PER_TABLE = 320;
+    private static final long STATE_HISTOGRAMS_BYTES = 3 * 128 * 32;
+
+    // Shortest window the ingest rate is measured over
+    private static final long RATE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder acceptedVotes = new LongAdder();
+    private final LongAdder rejectedVotes = new LongAdder();
+    private final LatencyHistogram emitVoteLatency = new LatencyHistogram();
+    private final LatencyHistogram emitVotesLatency = new LatencyHistogram();
+
+    private final LongAdder stateLockAcquisitions = new LongAdder();
+    private final LongAdder stateLockWaitNanos = new LongAdder();
+    private final AtomicLong stateLockMaxWaitNanos = new AtomicLong();
+
+    private volatile long closeNanos = -1;
+
+    /*
+     * The ingest rate is measured over windows of at least RATE_WINDOW_NANOS, and the rate of the last
+     * complete window is the one reported. A window only ends when the metrics are requested, but
+     * requesting them before it ends does not change it, so many clients can poll at the same time.
+     */
+    private long windowStartNanos = this.startNanos;
+    private long windowStartVotes = 0;
+    private double votesPerSecond = -1;
+
+    public void votesAccepted(int votes) {
+        this.acceptedVotes.add(votes);
+    }
+
+    public void votesRejected(int votes) {
+        this.rejectedVotes.add(votes);
+    }
+
+    /**
+     * @param startNanos Value of System.nanoTime() when the call started
+     */
+    public void emitVoteFinished(long startNanos) {
+        this.emitVoteLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * @param startNanos Value of System.nanoTime() when the call started
+     */
+    public void emitVotesFinished(long startNanos) {
+        this.emitVotesLatency.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Must be called right after acquiring the lock of the election state
+     * @param waitStartNanos Value of System.nanoTime() right before trying to acquire it
+     */
+    public void stateLockAcquired(long waitStartNanos) {
+        long wait = System.nanoTime() - waitStartNanos;
+        this.stateLockAcquisitions.increment();
+        this.stateLockWaitNanos.add(wait);
+        this.stateLockMaxWaitNanos.accumulateAndGet(wait, Math::max);
+    }
+
+    /**
+     * @param nanos Time it took to compute the results when closing
+     */
+    public void closeComputed(long nanos) {
+        this.closeNanos = nanos;
+    }
+
+    /**
+     * Fills the metrics recorded here, and the ingest rate of the last complete window
+     * @param metrics Metrics to fill
+     */
+    public synchronized void fill(ServerMetrics metrics) {
+        long now = System.nanoTime();
+        long accepted = this.acceptedVotes.sum();
+        long windowNanos = now - this.windowStartNanos;
+        double windowRate = windowNanos > 0 ? (accepted - this.windowStartVotes) * 1e9 / windowNanos : 0;
+        if (windowNanos >= RATE_WINDOW_NANOS) {
+            this.votesPerSecond = windowRate;
+            this.windowStartNanos = now;
+            this.windowStartVotes = accepted;
+        }
+
+        metrics.setUptimeMillis(TimeUnit.NANOSECONDS.toMillis(now - this.startNanos));
+        metrics.setAcceptedVotes(accepted);
+        metrics.setRejectedVotes(this.rejectedVotes.sum());
+        // Until the first window ends, the rate since the server started
+        metrics.setVotesPerSecond(this.votesPerSecond < 0 ? windowRate : this.votesPerSecond);
+        metrics.setEmitVoteLatency(new ServerMetrics.Latency(this.emitVoteLatency));
+        metrics.setEmitVotesLatency(new ServerMetrics.Latency(this.emitVotesLatency));
+        metrics.setStateLockAcquisitions(this.stateLockAcquisitions.sum());
+        metrics.setStateLockWaitMicros(TimeUnit.NANOSECONDS.toMicros(this.stateLockWaitNanos.sum()));
+        metrics.setStateLockMaxWaitMicros(TimeUnit.NANOSECONDS.toMicros(this.stateLockMaxWaitNanos.get()));
+        long close = this.closeNanos;
+        metrics.setCloseMillis(close < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(close));
+    }
+
+    /**
+     * @param tables Amount of tables
+     * @param distinctBallots Amount of distinct national ballots
+     * @return Rough estimate of the heap used by the tables and the tallies
+     */
+    public static long estimateHeapBytes(long tables, long distinctBallots) {
+        return tables * BYTES_PER_TABLE + distinctBallots * BYTES_PER_DISTINCT_BALLOT + STATE_HISTOGRAMS_BYTES;
+    }
+}
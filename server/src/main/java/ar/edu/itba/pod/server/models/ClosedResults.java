@@ -0,0 +1,74 @@
+package ar.edu.itba.pod.server.models;
+
+import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
+import ar.edu.itba.pod.models.*;
+import ar.edu.itba.pod.server.events.ResultsPhaseEvent;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Results of the election once it is closed.
+ * They never change after the close, so all of them are built only once, and every query afterwards
+ * only has to look them up. The results are Externalizable, so sending them writes only their arrays.
+ */
+public class ClosedResults {
+    // Null if there were no votes valid for the national election
+    private final NationalElectionsResult national;
+    private final Map<Province, StateElectionsResult> provinces = new EnumMap<>(Province.class);
+    // Tables without votes have no results
+    private final Map<Integer, FPTPResult> tables = new ConcurrentHashMap<>();
+
+    private ClosedResults(NationalElectionsResult national) {
+        this.national = national;
+    }
+
+    /**
+     * Builds the results once the elections were computed
+     * @param nationalElection National election, with its results already computed
+     * @param stateElection State election, with its results already computed
+     * @param tableRegistry Tables of the election
+     * @return Results of the election
+     */
+    public static ClosedResults build(NationalElection nationalElection, StateElection stateElection, TableRegistry tableRegistry) {
+        ResultsPhaseEvent event = new ResultsPhaseEvent(ResultsPhaseEvent.CLOSED_RESULTS);
+        event.begin();
+        NationalElectionsResult national = nationalElection.getResults();
+        ClosedResults results = new ClosedResults(national);
+
+        for (Province province : Province.values()) {
+            results.provinces.put(province, stateElection.getResults(province));
+        }
+
+        // There can be many tables, they are built in parallel
+        tableRegistry.stream().parallel().forEach(table -> {
+            try {
+                results.tables.put(table.getID(), new FPTPResult(table.getPercentages(), ElectionState.CLOSED));
+            } catch (NoVotesRegisteredException e) {
+                // Querying the table will fail as it would have before closing
+            }
+        });
+        event.commit();
+        return results;
+    }
+
+    /**
+     * @return National results, null if there were no votes for it
+     */
+    public NationalElectionsResult getNational() {
+        return national;
+    }
+
+    public StateElectionsResult getProvince(Province province) {
+        return provinces.get(province);
+    }
+
+    /**
+     * @param tableID Id of the table
+     * @return Results of the table, null if it had no votes
+     */
+    public FPTPResult getTable(Integer tableID) {
+        return tables.get(tableID);
+    }
+}
@@ -0,0 +1,58 @@
+package ar.edu.itba.pod.server.models;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Running FPTP votes of each province and of the whole nation, updated along with the tables.
+ * Querying them costs the same no matter how many tables there are, and does not go through the tables.
+ */
+public class FptpAggregates {
+    private final PartyCounter national = new PartyCounter();
+    private final Map<Province, PartyCounter> provinces = new EnumMap<>(Province.class);
+
+    public FptpAggregates() {
+        for (Province province : Province.values()) {
+            this.provinces.put(province, new PartyCounter());
+        }
+    }
+
+    /**
+     * Adds a vote emitted on a table of the given province
+     * @param province Province of the table
+     * @param party Party that received the vote
+     */
+    public void emitVote(Province province, Party party) {
+        this.provinces.get(province).increment(party);
+        this.national.increment(party);
+    }
+
+    /**
+     * Adds many votes emitted on tables of the given province, used when restoring a snapshot
+     * @param province Province of the tables
+     * @param party Party that received the votes
+     * @param votes Amount of votes
+     */
+    public void emitVotes(Province province, Party party, long votes) {
+        this.provinces.get(province).add(party, votes);
+        this.national.add(party, votes);
+    }
+
+    /**
+     * @return Array with the national votes of each party, indexed by the party ordinal
+     */
+    public long[] getNationalVotes() {
+        return this.national.snapshot();
+    }
+
+    /**
+     * @param province Province to get the votes from
+     * @return Array with the votes of each party in the province, indexed by the party ordinal
+     */
+    public long[] getProvinceVotes(Province province) {
+        return this.provinces.get(province).snapshot();
+    }
+}
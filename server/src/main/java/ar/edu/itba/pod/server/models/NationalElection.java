@@ -2,33 +2,94 @@ package ar.edu.itba.pod.server.models;
 
 import ar.edu.itba.pod.comparators.DoubleComparator;
 import ar.edu.itba.pod.comparators.LongComparator;
+import ar.edu.itba.pod.models.NationalElectionsResult;
 import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.PartyResults;
+import ar.edu.itba.pod.server.events.ResultsPhaseEvent;
 import org.apache.commons.lang3.tuple.MutablePair;
 
-import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 public class NationalElection {
+    private static final int PARTIES = Party.values().length;
+
     /**
-     * List to hold all the votes in order to be able to perform the automatic runoff
+     * Amount of votes for each distinct ballot
+     * Ballots are packed with StarBallot, so both the memory and the contention depend on the
+     * amount of distinct ballots instead of on the amount of voters
      */
-    private final List<Map<Party, Long>> ballots = new ArrayList<>();
+    private final ConcurrentHashMap<Integer, LongAdder> ballots = new ConcurrentHashMap<>();
 
-    // Comparators
-    private final DoubleComparator doubleComparator = new DoubleComparator();
-    private final LongComparator longComparator = new LongComparator();
+    /*
+     * Running tallies, updated as votes arrive so that computing the results does not depend on the turnout:
+     *  - scores: sum of the scores of each party, for the scoring round
+     *  - votedParties: mask of the parties that are on at least one ballot
+     *  - preferences[a * PARTIES + b]: ballots where party a has a larger score than party b
+     *  - ties[a * PARTIES + b]: ballots where parties a and b have the same score, other than 0
+     * For the automatic runoff between a and b, the ballots with both at 0 are the ones left out of
+     * the other three counts, so they do not need to be tallied.
+     */
+    private final LongAdder[] scores = new LongAdder[PARTIES];
+    private final AtomicInteger votedParties = new AtomicInteger();
+    private final LongAdder[] preferences = new LongAdder[PARTIES * PARTIES];
+    private final LongAdder[] ties = new LongAdder[PARTIES * PARTIES];
+    private final LongAdder totalBallots = new LongAdder();
 
-    // Sorted results
-    private TreeSet<MutablePair<Party, Long>> sortedScoringResults = new TreeSet<>(longComparator);
-    private TreeSet<MutablePair<Party, Double>> sortedRunoffResults = new TreeSet<>(doubleComparator);
-    private Party winner = null;
+    // Results once the elections are closed, null if there were no valid votes
+    private NationalElectionsResult results = null;
 
-    public NationalElection() { }
+    public NationalElection() {
+        Arrays.setAll(this.scores, i -> new LongAdder());
+        Arrays.setAll(this.preferences, i -> new LongAdder());
+        Arrays.setAll(this.ties, i -> new LongAdder());
+    }
 
     public void emitVote(Map<Party, Long> vote) {
-        synchronized (this.ballots) {
-            this.ballots.add(vote);
+        this.emitVote(StarBallot.pack(vote));
+    }
+
+    /**
+     * Stores a vote packed with StarBallot and updates the running tallies
+     * @param ballot Packed ballot
+     */
+    public void emitVote(int ballot) {
+        this.emitVotes(ballot, 1);
+    }
+
+    /**
+     * Stores many copies of a vote packed with StarBallot and updates the running tallies
+     * @param ballot Packed ballot
+     * @param votes Amount of votes, more than one when restoring a snapshot
+     */
+    public void emitVotes(int ballot, long votes) {
+        LongAdder count = this.ballots.get(ballot);
+        if (count == null) {
+            count = this.ballots.computeIfAbsent(ballot, b -> new LongAdder());
+        }
+        count.add(votes);
+        this.totalBallots.add(votes);
+
+        // Only updating the mask the first time a party is on a ballot
+        int ballotParties = StarBallot.votedParties(ballot);
+        if ((this.votedParties.get() & ballotParties) != ballotParties) {
+            this.votedParties.getAndAccumulate(ballotParties, (a, b) -> a | b);
+        }
+
+        long[] ballotScores = new long[PARTIES];
+        for (Party party : Party.values()) {
+            ballotScores[party.ordinal()] = StarBallot.score(ballot, party);
+            if (ballotScores[party.ordinal()] != 0) this.scores[party.ordinal()].add(ballotScores[party.ordinal()] * votes);
+        }
+        for (int a = 0; a < PARTIES; a++) {
+            // Parties with a score of 0 can not be preferred nor tied with a score other than 0
+            if (ballotScores[a] == 0) continue;
+            for (int b = 0; b < PARTIES; b++) {
+                if (ballotScores[a] > ballotScores[b]) this.preferences[a * PARTIES + b].add(votes);
+                else if (a < b && ballotScores[a] == ballotScores[b]) this.ties[a * PARTIES + b].add(votes);
+            }
         }
     }
 
@@ -38,106 +99,129 @@ public class NationalElection {
      * Will only be called ONCE and hence do not need to be synchronized
      */
     public void computeNationalElectionResults() {
-        if (this.ballots.size() > 0) {
-            List<Party> scoringRoundWinners = this.scoringRound();
-            winner = this.automaticRunoff(scoringRoundWinners);
-        }
+        this.results = this.computeResults();
     }
 
     /**
-     * Runs the scoring round considering the ballots parameter. Calculates for each party the score
-     * by summing up the vote value (0-5) of said party of all ballots.
-     * @return List of top two candidates
-     */
-    private List<Party> scoringRound() {
-        final Map<Party, Long> scoringRoundResults = new HashMap<>();
-        long newScore;
-
-        for (Map<Party, Long> ballot: this.ballots) {
-            for (Map.Entry<Party, Long> entry: ballot.entrySet()) {
-                newScore = scoringRoundResults.computeIfAbsent(entry.getKey(), k -> 0L) + entry.getValue();
-                // Saving the current score of the party
-                scoringRoundResults.put(entry.getKey(), newScore);
+     * Computes the results from the running tallies without storing them
+     * Can be called while votes are being emitted to obtain provisional results
+     * @return Results of the national election, null if there are no votes or no ballot is valid for the runoff
+     */
+    public NationalElectionsResult computeResults() {
+        if (this.totalBallots.sum() == 0) return null;
+
+        ResultsPhaseEvent scoringEvent = new ResultsPhaseEvent(ResultsPhaseEvent.NATIONAL_SCORING);
+        scoringEvent.begin();
+        long[] scoringRoundResults = this.scoringRound();
+        // Obtaining the two top candidates
+        List<Party> scoringRoundWinners = this.topTwo(scoringRoundResults);
+        scoringEvent.commit();
+
+        ResultsPhaseEvent runoffEvent = new ResultsPhaseEvent(ResultsPhaseEvent.NATIONAL_RUNOFF);
+        runoffEvent.begin();
+        double[] runoffResults = this.automaticRunoff(scoringRoundWinners);
+        runoffEvent.commit();
+        Party winner = PartyResults.first(runoffResults);
+        if (winner == null) return null;
+
+        return new NationalElectionsResult(scoringRoundResults, runoffResults, winner);
+    }
+
+    /**
+     * Runs the scoring round with the running score of each party.
+     * Only the parties that are on at least one ballot take part of it.
+     * @return Scoring round results indexed by the party ordinal, negative for the parties not voted
+     */
+    private long[] scoringRound() {
+        final int voted = this.votedParties.get();
+
+        long[] results = PartyResults.emptyLongs();
+        for (Party party : Party.values()) {
+            if ((voted & (1 << party.ordinal())) != 0) {
+                results[party.ordinal()] = this.scores[party.ordinal()].sum();
             }
         }
+        return results;
+    }
 
-        this.sortedScoringResults = new TreeSet<>(longComparator);
-        this.sortedScoringResults.addAll(scoringRoundResults.entrySet().stream().map(e -> new MutablePair<>(e.getKey(), e.getValue())).collect(Collectors.toList()));
+    /**
+     * Finds the two parties with the largest scores, ties go to the smallest alphanumeric party
+     * @param scores Scoring round results
+     * @return Up to two parties, in order
+     */
+    private List<Party> topTwo(long[] scores) {
+        List<Party> top = new ArrayList<>(2);
+        for (Party party : Party.values()) {
+            if (scores[party.ordinal()] < 0) continue;
+            int position = top.size();
+            while (position > 0 && this.isBefore(party, top.get(position - 1), scores)) position--;
+            if (position < 2) {
+                top.add(position, party);
+                if (top.size() > 2) top.remove(2);
+            }
+        }
+        return top;
+    }
 
-        // Sorting the candidates and obtaining the two top ones
-        return this.sortedScoringResults.stream().limit(2).map(Map.Entry::getKey).collect(Collectors.toList());
+    private boolean isBefore(Party party, Party other, long[] scores) {
+        long score = scores[party.ordinal()], otherScore = scores[other.ordinal()];
+        return score > otherScore || (score == otherScore && party.getDescription().compareTo(other.getDescription()) < 0);
     }
 
     /**
-     * Runs the automatic runoff considering the ballots parameter and the winners of the scorring round
-     * A party adds points by having the larger vote value on a ballot
-     * @return Winning party of automatic runoffs
-     */
-    private Party automaticRunoff(final List<Party> winners) {
-        final Map<Party, Double> automaticRunoffResult = new HashMap<>();
-
-        /*if (winners.size() != 2) {
-            System.out.println("Must be two winners from the scoring round");
-            return null;
-        }*/
-        // 1. Filter ballots whose winning candidate score is equal to 0
-        List<Map<Party, Long>> filteredBallots = this.ballots.stream()
-                .filter(b -> validBallotForRunoff(b, winners))
-                .collect(Collectors.toList());
-
-        // 2. For each ballot, check which candidate has the top score
-        Map<Party, Long> runoffResults = filteredBallots.stream()
-                .map(b -> winnerOfBallot(b, winners))
-                .collect(Collectors.groupingBy(p -> p, Collectors.summingLong(p -> 1)));
-
-        // 3. Calculate the percentages for each party
-        double totalScore = runoffResults.values().stream().mapToLong(v -> v).sum();
-        runoffResults.forEach((party, score) -> {
-            automaticRunoffResult.put(party, ((double) score / totalScore) * 100.0);
-        });
+     * Runs the automatic runoff between the winners of the scoring round with the pairwise preferences
+     * A party adds points by having the larger vote value on a ballot, ties go to the smallest alphanumeric party
+     * Ballots where both winners have a score of 0 are not considered
+     * @return Runoff percentages indexed by the party ordinal, NaN for the parties without points
+     */
+    private double[] automaticRunoff(final List<Party> winners) {
+        final double[] results = PartyResults.emptyDoubles();
+        final Map<Party, Long> runoffResults = new HashMap<>();
+        if (winners.isEmpty()) return results;
+
+        Party first = winners.get(0);
+        // If only one party was voted, every other party has a score of 0 on all the ballots
+        Party second = winners.size() > 1 ? winners.get(1) : Arrays.stream(Party.values()).filter(p -> p != first).findFirst().get();
+
+        long firstPreferred = this.preferences[first.ordinal() * PARTIES + second.ordinal()].sum();
+        long secondPreferred = this.preferences[second.ordinal() * PARTIES + first.ordinal()].sum();
+        long tied = this.ties[Math.min(first.ordinal(), second.ordinal()) * PARTIES + Math.max(first.ordinal(), second.ordinal())].sum();
+        Party tieWinner = first.getDescription().compareTo(second.getDescription()) < 0 ? first : second;
+
+        runoffResults.put(first, firstPreferred + (tieWinner == first ? tied : 0));
+        if (winners.size() > 1) {
+            runoffResults.put(second, secondPreferred + (tieWinner == second ? tied : 0));
+        }
+        runoffResults.values().removeIf(v -> v == 0);
 
-        // 4. Sort the results and get the first one
-        this.sortedRunoffResults = new TreeSet<>(doubleComparator);
-        this.sortedRunoffResults.addAll(automaticRunoffResult.entrySet().stream().map(e -> new MutablePair<>(e.getKey(), e.getValue())).collect(Collectors.toList()));
-        return this.sortedRunoffResults.first().getKey();
+        // Calculate the percentages for each party
+        double totalScore = runoffResults.values().stream().mapToLong(v -> v).sum();
+        runoffResults.forEach((party, score) -> results[party.ordinal()] = ((double) score / totalScore) * 100.0);
+        return results;
     }
 
     /**
-     * Given a ballot and a list of winners of the scoring round, returns whether the ballot is valid
-     * to be considered for the automatic runoffs. Invalid ballots have vote = 0 for all the winning candidates.
-     * @return boolean
+     * Reads the amount of votes of each distinct ballot
+     * @return Map of packed ballot to the amount of votes it received
      */
-    private boolean validBallotForRunoff(Map<Party, Long> ballot, List<Party> winners) {
-        if (winners == null || winners.isEmpty()) return false;
+    public Map<Integer, Long> getBallotCounts() {
+        Map<Integer, Long> ballotCounts = new HashMap<>();
+        this.ballots.forEach((ballot, count) -> ballotCounts.put(ballot, count.sum()));
+        return ballotCounts;
+    }
 
-        boolean isValid = false;
-        for (Party candidate: winners) {
-            isValid = isValid || ballot.computeIfAbsent(candidate, c -> 0L) != 0;
-        }
-        return isValid;
+    /**
+     * @return Amount of ballots emitted
+     */
+    public long getTotalBallots() {
+        return this.totalBallots.sum();
     }
 
     /**
-     * Given a ballot and a list of winners from the scoring round, returns the party that had the
-     * largest vote value in that ballot. If it is a tie, the smallest alphanumeric party is chosen.
-     * @return Winning party of ballot
-     */
-    private Party winnerOfBallot(Map<Party, Long> ballot, List<Party> winners) {
-        Party winner = null;
-        long maxScore = -1;
-        
-        for (Party candidate: winners) {
-            long score = ballot.computeIfAbsent(candidate, c -> 0L);
-            // If both have the same score, winner will be the smallest alphanumeric party
-            if (winner != null && score == maxScore) {
-                winner = candidate.getDescription().compareTo(winner.getDescription()) < 0 ? candidate : winner;
-            }
-            else if (score > maxScore) {
-                maxScore = score;
-                winner = candidate;
-            }
-        }
-        return winner;
+     * @return Amount of distinct ballots emitted, each of them is stored once
+     */
+    public long getDistinctBallots() {
+        return this.ballots.size();
     }
 
     /* Methods from below will only be called once the elections are closed and therefore, the national
@@ -149,7 +233,14 @@ public class NationalElection {
      * @return The party winner of the elections
      */
     public Party getNationalElectionWinner() {
-        return winner;
+        return results == null ? null : results.getWinner();
+    }
+
+    /**
+     * @return Results of the elections, null if there were no valid votes
+     */
+    public NationalElectionsResult getResults() {
+        return results;
     }
 
     /**
@@ -157,7 +248,7 @@ public class NationalElection {
      * @return List of map entries of the scoring round results
      */
     public TreeSet<MutablePair<Party, Long>> getSortedScoringRoundResults() {
-        return this.sortedScoringResults;
+        return this.results == null ? new TreeSet<>(new LongComparator()) : this.results.getScoringRoundResults();
     }
     
     /**
@@ -165,6 +256,6 @@ public class NationalElection {
      * @return List of map entries of the runoff results
      */
     public TreeSet<MutablePair<Party, Double>> getSortedAutomaticRunoffResults() {
-        return this.sortedRunoffResults;
+        return this.results == null ? new TreeSet<>(new DoubleComparator()) : this.results.getAutomaticRunoffResults();
     }
 }
@@ -0,0 +1,60 @@
+package ar.edu.itba.pod.server.models;
+
+import ar.edu.itba.pod.models.Party;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Vote counter for each party, indexed by the party ordinal.
+ * Each party has its own striped counter, so concurrent increments do not retry on the same
+ * value and the striped cells are padded to avoid false sharing between parties.
+ */
+public class PartyCounter {
+    private final LongAdder[] votes = new LongAdder[Party.values().length];
+
+    public PartyCounter() {
+        Arrays.setAll(this.votes, i -> new LongAdder());
+    }
+
+    /**
+     * Adds a vote to the given party
+     * @param party Party that received the vote
+     */
+    public void increment(Party party) {
+        this.votes[party.ordinal()].increment();
+    }
+
+    /**
+     * Adds many votes to the given party
+     * @param party Party that received the votes
+     * @param votes Amount of votes
+     */
+    public void add(Party party, long votes) {
+        this.votes[party.ordinal()].add(votes);
+    }
+
+    /**
+     * @param party Party to get the votes from
+     * @return Current amount of votes for the party
+     */
+    public long get(Party party) {
+        return this.votes[party.ordinal()].sum();
+    }
+
+    /**
+     * Reads every counter, one after the other
+     * It is not an atomic read: votes that arrive meanwhile may be counted for some parties and not
+     * for others, so it is only approximately consistent while votes arrive, and exact once they stop.
+     * Values derived from it (totals, percentages) must still be computed from the same array, so at
+     * least they agree with each other.
+     * @return Array with the votes of each party, indexed by the party ordinal
+     */
+    public long[] snapshot() {
+        long[] snapshot = new long[this.votes.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = this.votes[i].sum();
+        }
+        return snapshot;
+    }
+}
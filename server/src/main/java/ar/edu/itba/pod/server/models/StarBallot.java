@@ -0,0 +1,81 @@
+package ar.edu.itba.pod.server.models;
+
+import ar.edu.itba.pod.models.Party;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Packs a STAR ballot into an int, using 3 bits for each party (by ordinal).
+ * A party that is not on the ballot is stored as 0 and a score s (0 to 5) as s + 1, so a party
+ * that was given 0 points can still be told apart from one that was not voted.
+ */
+public final class StarBallot {
+    public static final int MAX_SCORE = 5;
+
+    private static final int BITS_PER_PARTY = 3;
+    private static final int PARTY_MASK = (1 << BITS_PER_PARTY) - 1;
+
+    private StarBallot() { }
+
+    /**
+     * Packs a STAR vote
+     * @param vote Map of party to the score given to the party
+     * @return Packed ballot
+     * @throws IllegalArgumentException if a score is not between 0 and MAX_SCORE
+     */
+    public static int pack(Map<Party, Long> vote) {
+        int ballot = 0;
+        for (Map.Entry<Party, Long> entry : vote.entrySet()) {
+            long score = entry.getValue();
+            if (score < 0 || score > MAX_SCORE) {
+                throw new IllegalArgumentException("Invalid STAR score " + score + " for " + entry.getKey());
+            }
+            ballot |= (int) (score + 1) << shift(entry.getKey());
+        }
+        return ballot;
+    }
+
+    /**
+     * @return true if the party is on the packed ballot, even with a score of 0
+     */
+    public static boolean isVoted(int ballot, Party party) {
+        return ((ballot >>> shift(party)) & PARTY_MASK) != 0;
+    }
+
+    /**
+     * @return Mask of the parties on the packed ballot, bit i is set if the party with ordinal i is on it
+     */
+    public static int votedParties(int ballot) {
+        int mask = 0;
+        for (Party party : Party.values()) {
+            if (isVoted(ballot, party)) mask |= 1 << party.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * @return Score given to the party on the packed ballot, 0 if it is not on the ballot
+     */
+    public static long score(int ballot, Party party) {
+        int value = (ballot >>> shift(party)) & PARTY_MASK;
+        return value == 0 ? 0 : value - 1;
+    }
+
+    /**
+     * Unpacks a STAR vote
+     * @param ballot Packed ballot
+     * @return Map of each party on the ballot to the score given to it
+     */
+    public static Map<Party, Long> unpack(int ballot) {
+        Map<Party, Long> vote = new EnumMap<>(Party.class);
+        for (Party party : Party.values()) {
+            if (isVoted(ballot, party)) vote.put(party, score(ballot, party));
+        }
+        return vote;
+    }
+
+    private static int shift(Party party) {
+        return party.ordinal() * BITS_PER_PARTY;
+    }
+}
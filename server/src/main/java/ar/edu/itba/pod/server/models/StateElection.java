@@ -2,26 +2,40 @@ package ar.edu.itba.pod.server.models;
 
 import ar.edu.itba.pod.comparators.DoubleComparator;
 import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.PartyResults;
 import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.StateElectionsResult;
+import ar.edu.itba.pod.server.events.ResultsPhaseEvent;
 import org.apache.commons.lang3.tuple.MutablePair;
 
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 public class StateElection {
     /**
-     * Each province holds a list of the list of candidate parties
+     * Amount of different sets of approved parties a ballot can have
      */
-    private final Map<Province, List<List<Party>>> ballots = new HashMap<>();
-    private Map<Province, List<Map<Party, Double>>> results = new HashMap<>();
-    private Map<Province, List<Party>> winnersPerProvince = new HashMap<>();
-    private List<Party> winners = new ArrayList<>();
+    private static final int APPROVAL_SETS = 1 << Party.values().length;
+
+    /**
+     * Each province holds a histogram of ballots, indexed by the mask of the approved parties
+     * (bit i is set if the party with ordinal i is approved)
+     */
+    private final Map<Province, LongAdder[]> ballots = new EnumMap<>(Province.class);
+    // Provinces can be computed concurrently, each one writes only its own entries
+    private final Map<Province, List<Map<Party, Double>>> results = new ConcurrentHashMap<>();
+    private final Map<Province, List<Party>> winnersPerProvince = new ConcurrentHashMap<>();
 
     // Comparator
     private final DoubleComparator doubleComparator = new DoubleComparator();
 
     public StateElection() {
-        Arrays.stream(Province.values()).forEach(p -> ballots.put(p, new ArrayList<>()));
+        for (Province province : Province.values()) {
+            LongAdder[] histogram = new LongAdder[APPROVAL_SETS];
+            Arrays.setAll(histogram, i -> new LongAdder());
+            ballots.put(province, histogram);
+        }
     }
 
     /**
@@ -30,70 +44,152 @@ public class StateElection {
      * @param vote List of chosen candidate parties
      */
     public void emitVote(Province province, List<Party> vote) {
-        List<List<Party>> ballotsPerProvince = this.ballots.get(province);
-        synchronized (ballotsPerProvince) {
-            ballotsPerProvince.add(vote);
-        }
+        this.emitVote(province, approvalMask(vote));
+    }
+
+    /**
+     * Given a SPAV vote in the format of a mask of approved parties, and the corresponding province, store the vote
+     * @param province Province for the vote
+     * @param approvalMask Mask of chosen candidate parties, bit i is set if the party with ordinal i is approved
+     */
+    public void emitVote(Province province, int approvalMask) {
+        this.ballots.get(province)[approvalMask].increment();
+    }
+
+    /**
+     * Stores many SPAV votes with the same approved parties, used when restoring a snapshot
+     * @param province Province for the votes
+     * @param approvalMask Mask of chosen candidate parties, bit i is set if the party with ordinal i is approved
+     * @param votes Amount of votes
+     */
+    public void emitVotes(Province province, int approvalMask, long votes) {
+        this.ballots.get(province)[approvalMask].add(votes);
+    }
+
+    /**
+     * Reads the histogram of ballots of a province
+     * @param province Province to read
+     * @return Amount of ballots of the province for each approval mask
+     */
+    public long[] getApprovals(Province province) {
+        return Arrays.stream(ballots.get(province)).mapToLong(LongAdder::sum).toArray();
+    }
+
+    /**
+     * Given a list of parties, returns the mask of those parties
+     * @param parties List of parties
+     * @return Mask with bit i set if the party with ordinal i is in the list
+     */
+    public static int approvalMask(List<Party> parties) {
+        int mask = 0;
+        for (Party party : parties) mask |= 1 << party.ordinal();
+        return mask;
     }
 
     /**
      * Once elections are closed, computes all results
      */
     public void computeStateElectionResults() {
-        for(Province p : Province.values()) computeResultsForProvince(p);
+        for(Province p : Province.values()) computeStateElectionResults(p);
+    }
+
+    /**
+     * Once elections are closed, given a province, computes three rounds.
+     * Different provinces can be computed concurrently.
+     * @param province Province for results
+     */
+    public void computeStateElectionResults(Province province){
+        List<Party> winners = new ArrayList<>();
+        List<Map<Party, Double>> rounds = computeRounds(province, winners);
+        // Adds winners per province
+        winnersPerProvince.put(province, winners);
+        // Final results
+        results.put(province, rounds);
+    }
+
+    /**
+     * Given a province, computes the results from the running histogram without storing them
+     * Can be called while votes are being emitted to obtain provisional results
+     * @param province Province for results
+     * @return Results of the three rounds of the province
+     */
+    public StateElectionsResult computeResults(Province province) {
+        List<Party> winners = new ArrayList<>();
+        List<Map<Party, Double>> rounds = computeRounds(province, winners);
+        return toResults(province, rounds, winners);
+    }
+
+    private static StateElectionsResult toResults(Province province, List<Map<Party, Double>> rounds, List<Party> winners) {
+        return new StateElectionsResult(province,
+                PartyResults.fromMap(rounds.get(Round.FIRST.getValue())),
+                PartyResults.fromMap(rounds.get(Round.SECOND.getValue())),
+                PartyResults.fromMap(rounds.get(Round.THIRD.getValue())),
+                winners.toArray(new Party[]{}));
     }
 
     /**
      * Given a province, computes three rounds.
      * @param province Province for results
+     * @param winners List where the winner of each round is added
+     * @return Results of each round
      */
-    private void computeResultsForProvince(Province province){
+    private List<Map<Party, Double>> computeRounds(Province province, List<Party> winners) {
+        ResultsPhaseEvent event = new ResultsPhaseEvent(ResultsPhaseEvent.PROVINCE_ROUNDS);
+        event.begin();
+        // Reading the histogram only once, all rounds are computed from it
+        long[] histogram = getApprovals(province);
+
         // Three rounds will be stored here
         List<Map<Party, Double>> rounds = new ArrayList<>();
-        // There are no winners at this point
-        winners.clear();
         for(int i=0; i<3; i++) {
             // 1. Computes round results
-            rounds.add(computeRound(province));
+            rounds.add(computeRound(histogram, winners));
             // 2. Computes winner for the round
-            computeWinner(rounds.get(i));
+            computeWinner(rounds.get(i), winners);
         }
-        // 3. Adds winners per province
-        winnersPerProvince.put(province, new ArrayList<>(winners));
-        // Final results
-        results.put(province, rounds);
+
+        event.end();
+        if (event.shouldCommit()) {
+            event.province = province.name();
+            event.commit();
+        }
+        return rounds;
     }
 
     /**
-     * Given a province, computes a specific round.
-     * @param province Province for round
+     * Given the ballots of a province, computes a specific round.
+     * @param histogram Amount of ballots of the province for each approval mask
+     * @param winners Winners of the previous rounds
      */
-    private Map<Party, Double> computeRound(Province province) {
-        // 1. First we get ballots for the intended province
-        List<List<Party>> provinceBallots = ballots.get(province);
-
-        if(provinceBallots.isEmpty()) return new HashMap<>();
+    private Map<Party, Double> computeRound(long[] histogram, List<Party> winners) {
+        if(Arrays.stream(histogram).allMatch(c -> c == 0)) return new HashMap<>();
 
+        int winnersMask = approvalMask(winners);
         Map<Party, Double> round = new HashMap<>();
-        // 2. For every party, we search for approved ballots, then we get real approval value, and sum all together
+        // 1. For every party, we search for approval sets including it, then we get real approval value, and sum all together
         for(Party p : Party.values()){
             // we don't compute results for winners from previous rounds!
             if(!winners.contains(p)) {
-                round.put(p, provinceBallots.stream()
-                        .filter(b -> b.contains(p))
-                        .mapToDouble(b -> 1/(1+winnersInBallot(b)))
-                        .sum());
+                int partyMask = 1 << p.ordinal();
+                double approval = 0;
+                for (int mask = 0; mask < histogram.length; mask++) {
+                    if ((mask & partyMask) != 0 && histogram[mask] != 0) {
+                        approval += histogram[mask] * (1 / (1 + (double) Integer.bitCount(mask & winnersMask)));
+                    }
+                }
+                round.put(p, approval);
             }
         }
-        // 3. New round is completed
+        // 2. New round is completed
         return round;
     }
 
     /**
      * Given a round, computes the winner of that round.
      * @param round to compute a winner
+     * @param winners Winners of the previous rounds, the new winner is added to it
      */
-    private void computeWinner(Map<Party, Double> round) {
+    private void computeWinner(Map<Party, Double> round, List<Party> winners) {
         if(round.isEmpty()) return;
 
         round.entrySet().stream().map(e -> new MutablePair<>(e.getKey(), e.getValue()))
@@ -102,16 +198,7 @@ public class StateElection {
                 // 2. From remaining, finds the winner
                 .min(doubleComparator)
                 // 3. Adds new winner for a specific round
-                .map(Map.Entry::getKey).ifPresent(p -> winners.add(p));
-    }
-
-    /**
-     * Given a ballot, returns how many winners are on that ballot.
-     * @param ballot
-     * @return How many winners are on that ballot
-     */
-    private double winnersInBallot(List<Party> ballot) {
-        return ballot.stream().filter(p -> winners.contains(p)).count();
+                .map(Map.Entry::getKey).ifPresent(winners::add);
     }
 
     /* Methods from below will only be called once the elections are closed and therefore, state results
@@ -123,7 +210,7 @@ public class StateElection {
      * @return long representing votes quantity
      */
     public long getVotesQuantity() {
-        return ballots.values().stream().mapToLong(List::size).sum();
+        return ballots.values().stream().flatMap(Arrays::stream).mapToLong(LongAdder::sum).sum();
     }
 
     /**
@@ -156,6 +243,15 @@ public class StateElection {
         return winnersPerProvince.get(province).toArray(new Party[]{});
     }
 
+    /**
+     * Given province, returns the results of the three rounds
+     * @param province Province to get results
+     * @return Results of the province
+     */
+    public StateElectionsResult getResults(Province province) {
+        return toResults(province, results.get(province), winnersPerProvince.get(province));
+    }
+
     /**
      * Given province and round, returns sorted treeSet with results
      * @param province Province for results
@@ -163,13 +259,17 @@ public class StateElection {
      * @return TreeSet containing Map entries with party and approval rate
      */
     private TreeSet<MutablePair<Party, Double>> getNthRound(Province province, Round round) {
+        return sortRound(results.get(province).get(round.getValue()));
+    }
+
+    /**
+     * Given the results of a round, returns sorted treeSet with them
+     * @param round Results of the round
+     * @return TreeSet containing Map entries with party and approval rate
+     */
+    private TreeSet<MutablePair<Party, Double>> sortRound(Map<Party, Double> round) {
         TreeSet<MutablePair<Party, Double>> orderedSet = new TreeSet<>(doubleComparator);
-        if(!results.get(province).get(round.getValue()).isEmpty()) {
-            orderedSet.addAll(
-                    results.get(province).get(round.getValue()).entrySet().stream()
-                            .map(e -> new MutablePair<>(e.getKey(), e.getValue())).collect(Collectors.toList())
-            );
-        }
+        round.forEach((party, approval) -> orderedSet.add(new MutablePair<>(party, approval)));
         return orderedSet;
     }
 
@@ -1,32 +1,35 @@
 package ar.edu.itba.pod.server.models;
 
-import ar.edu.itba.pod.comparators.DoubleComparator;
 import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
 import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.PartyResults;
 import ar.edu.itba.pod.models.Province;
 import org.apache.commons.lang3.tuple.MutablePair;
 
 import java.util.*;
-import java.util.concurrent.atomic.AtomicLong;
 
 public class Table {
     private final Integer ID;
     private final Province province;
-    private final Map<Party, AtomicLong> votes = new HashMap<>();
-
-    private final DoubleComparator doubleComparator = new DoubleComparator();
+    private final PartyCounter votes = new PartyCounter();
 
     public Table(Integer ID, Province province) {
         this.ID = ID;
         this.province = province;
-        Arrays.stream(Party.values()).forEach(p -> votes.put(p, new AtomicLong(0)));
     }
 
     /**
      * Given some party, increments votes value for that party.
      */
     public void emitVote(Party party) {
-        this.votes.get(party).getAndIncrement();
+        this.votes.increment(party);
+    }
+
+    /**
+     * Given some party, adds many votes for that party, used when restoring a snapshot
+     */
+    public void emitVotes(Party party, long votes) {
+        this.votes.add(party, votes);
     }
 
     public Integer getID() {
@@ -37,30 +40,39 @@ public class Table {
         return this.province;
     }
 
-    public Map<Party, AtomicLong> getVotes() {
-        return this.votes;
+    /**
+     * @return Array with the votes of each party, indexed by the party ordinal
+     */
+    public long[] getVotes() {
+        return this.votes.snapshot();
     }
 
     public long getVotes(Party party) {
-        return this.votes.get(party).longValue();
+        return this.votes.get(party);
     }
 
-    public TreeSet<MutablePair<Party,Double>> getResultsFromTable() throws NoVotesRegisteredException {
-        TreeSet<MutablePair<Party, Double>> entries;
-
-        // Synchronizing in order to stop incoming votes while calculating the result
-        synchronized (this.votes) {
-            boolean noVotes = this.votes.entrySet().stream().allMatch(e -> e.getValue().get() == 0L);
-            if(noVotes) {
-                throw new NoVotesRegisteredException();
-            }
+    /**
+     * @return Percentage of the votes of each party, indexed by the party ordinal
+     * @throws NoVotesRegisteredException if the table has no votes
+     */
+    public double[] getPercentages() throws NoVotesRegisteredException {
+        // Reading the votes only once, so that the total and the percentages are computed with the same values
+        long[] snapshot = this.votes.snapshot();
 
-            // Summing up the total amount of votes
-            double totalVotes = (double) this.votes.values().stream().mapToLong(AtomicLong::get).reduce(0, Long::sum);
+        // Summing up the total amount of votes
+        double totalVotes = (double) Arrays.stream(snapshot).sum();
+        if (totalVotes == 0) {
+            throw new NoVotesRegisteredException();
+        }
 
-            entries = new TreeSet<>(this.doubleComparator);
-            this.votes.forEach((key, value) -> entries.add(new MutablePair<>(key, ((((Long) value.get()).doubleValue()) / totalVotes) * 100.0 )));
+        double[] percentages = new double[snapshot.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            percentages[i] = (snapshot[i] / totalVotes) * 100.0;
         }
-        return entries;
+        return percentages;
+    }
+
+    public TreeSet<MutablePair<Party,Double>> getResultsFromTable() throws NoVotesRegisteredException {
+        return PartyResults.sorted(this.getPercentages());
     }
 }
@@ -0,0 +1,114 @@
+package ar.edu.itba.pod.server.models;
+
+import ar.edu.itba.pod.models.Province;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Holds all the tables of the election and can be used concurrently without locking.
+ * Tables registered before the election starts are kept in a dense array indexed by id, tables
+ * that were not registered are created on their first vote and kept in a concurrent map.
+ */
+public class TableRegistry {
+    /**
+     * Largest range of ids that will be stored in the dense array
+     */
+    private static final int MAX_DENSE_RANGE = 1 << 22;
+    /**
+     * Largest amount of slots of the dense array for each registered table, so few tables spread over
+     * a large range of ids are kept in the map instead
+     */
+    private static final int MAX_SLOTS_PER_TABLE = 4;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Catalogue of registered tables, it is never modified once published
+     */
+    private volatile Catalogue catalogue = new Catalogue(0, new Table[0]);
+    private final ConcurrentHashMap<Integer, Table> tables = new ConcurrentHashMap<>(INITIAL_CAPACITY);
+
+    /**
+     * Registers the given tables, must be called before any vote is emitted
+     * @param tablesToRegister Map of table id to the province of the table
+     */
+    public synchronized void registerAll(Map<Integer, Province> tablesToRegister) {
+        // Merging the already registered tables with the new ones
+        Map<Integer, Table> registered = new HashMap<>(this.tables);
+        this.catalogue.stream().forEach(t -> registered.put(t.getID(), t));
+        tablesToRegister.forEach((id, province) -> registered.put(id, new Table(id, province)));
+        if (registered.isEmpty()) return;
+
+        int firstId = Collections.min(registered.keySet());
+        long range = (long) Collections.max(registered.keySet()) - firstId + 1;
+
+        if (range <= MAX_DENSE_RANGE && range <= (long) registered.size() * MAX_SLOTS_PER_TABLE) {
+            Table[] dense = new Table[(int) range];
+            registered.forEach((id, table) -> dense[id - firstId] = table);
+            this.tables.clear();
+            this.catalogue = new Catalogue(firstId, dense);
+        } else {
+            // Ids are too many or too spread for an array, the map is filled instead so it does not grow during the election
+            this.tables.putAll(registered);
+            this.catalogue = new Catalogue(0, new Table[0]);
+        }
+    }
+
+    /**
+     * Obtains a table
+     * @param id Id of the table
+     * @return Table with the id, null if it does not exist
+     */
+    public Table get(Integer id) {
+        Table table = this.catalogue.get(id);
+        return table != null ? table : this.tables.get(id);
+    }
+
+    /**
+     * Obtains a table, creating it if it does not exist
+     * @param id Id of the table
+     * @param province Province of the table, only used if it has to be created
+     * @return Table with the id
+     */
+    public Table getOrCreate(Integer id, Province province) {
+        Table table = this.get(id);
+        return table != null ? table : this.tables.computeIfAbsent(id, i -> new Table(i, province));
+    }
+
+    /**
+     * @return Stream with all the tables
+     */
+    public Stream<Table> stream() {
+        return Stream.concat(this.catalogue.stream(), this.tables.values().stream());
+    }
+
+    /**
+     * @return Amount of tables
+     */
+    public long size() {
+        return this.catalogue.size + this.tables.size();
+    }
+
+    private static class Catalogue {
+        private final int firstId;
+        private final Table[] tables;
+        private final int size;
+
+        private Catalogue(int firstId, Table[] tables) {
+            this.firstId = firstId;
+            this.tables = tables;
+            this.size = (int) Arrays.stream(tables).filter(Objects::nonNull).count();
+        }
+
+        private Table get(int id) {
+            // Comparing as longs to avoid overflowing with negative ids
+            long index = (long) id - this.firstId;
+            return index >= 0 && index < this.tables.length ? this.tables[(int) index] : null;
+        }
+
+        private Stream<Table> stream() {
+            return Arrays.stream(this.tables).filter(Objects::nonNull);
+        }
+    }
+}
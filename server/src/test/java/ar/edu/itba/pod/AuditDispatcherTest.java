@@ -0,0 +1,130 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.models.Vote;
+import ar.edu.itba.pod.server.concurrency.AuditDispatcher;
+import ar.edu.itba.pod.server.concurrency.AuditSubscriber;
+import org.junit.After;
+import org.junit.Test;
+
+import java.rmi.RemoteException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AuditDispatcherTest {
+    // Delivering each vote on its own and without waiting, to know which votes are in the queue
+    private final AuditDispatcher dispatcher = new AuditDispatcher(2, 4, 3, 1, 0);
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testSlowOfficerDoesNotDelayOthers() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(3);
+        AuditSubscriber slow = dispatcher.subscribe(vote -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AuditSubscriber fast = dispatcher.subscribe(vote -> delivered.countDown());
+
+        for (int i = 0; i < 3; i++) {
+            slow.offer(createVote());
+            fast.offer(createVote());
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        release.countDown();
+    }
+
+    @Test
+    public void testFullQueueDropsVotes() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AuditSubscriber subscriber = dispatcher.subscribe(vote -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        // The first vote is being delivered, the next 4 fill the queue
+        subscriber.offer(createVote());
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 4; i++) {
+            assertTrue(subscriber.offer(createVote()));
+        }
+        assertFalse(subscriber.offer(createVote()));
+        assertEquals(1, dispatcher.getDropped());
+        assertEquals(4, dispatcher.getLag());
+        release.countDown();
+    }
+
+    @Test
+    public void testFailingOfficerIsEvicted() throws InterruptedException {
+        AtomicInteger calls = new AtomicInteger();
+        AuditSubscriber subscriber = dispatcher.subscribe(vote -> {
+            calls.incrementAndGet();
+            throw new RemoteException("Officer is gone");
+        });
+
+        for (int i = 0; i < 4; i++) {
+            subscriber.offer(createVote());
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!subscriber.isEvicted() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(subscriber.isEvicted());
+        assertEquals(3, calls.get());
+        assertFalse(subscriber.offer(createVote()));
+        assertEquals(1, dispatcher.getEvicted());
+        assertEquals(2, dispatcher.getDropped());
+    }
+
+    @Test
+    public void testVotesAreCoalesced() throws InterruptedException {
+        AuditDispatcher lingering = new AuditDispatcher(1, 100, 3, 10, 200);
+        List<Integer> batches = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch delivered = new CountDownLatch(15);
+        AuditSubscriber subscriber = lingering.subscribe(new PartyVoteHandler() {
+            @Override
+            public void onPartyVote(Vote vote) {
+                throw new IllegalStateException("Votes should be delivered in batches");
+            }
+
+            @Override
+            public void onPartyVotes(List<Vote> votes) {
+                batches.add(votes.size());
+                votes.forEach(v -> delivered.countDown());
+            }
+        });
+
+        for (int i = 0; i < 15; i++) {
+            subscriber.offer(createVote());
+        }
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(10, 5), batches);
+        lingering.shutdown();
+    }
+
+    private static Vote createVote() {
+        return new Vote(Province.JUNGLE, 1000, Party.TIGER, Collections.singletonMap(Party.TIGER, 5L), Collections.singletonList(Party.TIGER));
+    }
+}
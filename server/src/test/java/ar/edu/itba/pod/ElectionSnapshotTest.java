@@ -0,0 +1,253 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.exceptions.InsufficientWinnersException;
+import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
+import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
+import ar.edu.itba.pod.models.*;
+import ar.edu.itba.pod.server.Servant;
+import ar.edu.itba.pod.server.journal.Checkpointer;
+import ar.edu.itba.pod.server.journal.ElectionSnapshot;
+import ar.edu.itba.pod.server.journal.VoteJournal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.rmi.RemoteException;
+import java.rmi.server.UnicastRemoteObject;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class ElectionSnapshotTest {
+    private Path journalPath;
+    private Path snapshotPath;
+    private final List<Servant> servants = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        journalPath = Files.createTempFile("votes", ".journal");
+        snapshotPath = journalPath.resolveSibling(journalPath.getFileName() + ".snapshot");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        servants.forEach(servant -> servant.getAuditDispatcher().shutdown());
+        Files.deleteIfExists(journalPath);
+        Files.deleteIfExists(snapshotPath);
+    }
+
+    @Test
+    public void testRestartReplaysOnlyAfterSnapshot() throws IOException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        Servant servant = createServant();
+        ElectionSnapshot snapshot;
+        try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant)) {
+            servant.setJournal(journal);
+            Checkpointer checkpointer = new Checkpointer(journal, journalPath, snapshotPath, null, servant);
+            servant.registerTables(Collections.singletonMap(1000, Province.TUNDRA));
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 40));
+            checkpointer.checkpoint();
+            snapshot = ElectionSnapshot.read(snapshotPath);
+            assertEquals(Files.size(journalPath), snapshot.getJournalLength());
+
+            // Votes after the snapshot are only in the journal
+            servant.emitVotes(createVotes(40, 10));
+            checkpointer.close();
+        }
+
+        assertEquals(ElectionState.OPEN, snapshot.getElectionState());
+
+        Servant restored = createServant();
+        restored.restore(snapshot);
+        try (VoteJournal journal = VoteJournal.open(journalPath, snapshot.getJournalLength(), restored, restored)) {
+            restored.setJournal(journal);
+            // Only the votes after the snapshot were replayed
+            assertEquals(10, restored.getMetrics().getAcceptedVotes());
+            assertResultsEqual(servant, restored);
+        }
+    }
+
+    @Test
+    public void testSnapshotOfClosedElection() throws IOException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 30));
+            servant.closeElection();
+            try (Checkpointer ignored = new Checkpointer(journal, journalPath, snapshotPath, null, servant)) {
+                // The last snapshot is taken when closing
+            }
+        }
+
+        ElectionSnapshot snapshot = ElectionSnapshot.read(snapshotPath);
+        assertEquals(Files.size(journalPath), snapshot.getJournalLength());
+
+        Servant restored = createServant();
+        restored.restore(snapshot);
+        assertEquals(ElectionState.CLOSED, restored.getElectionState());
+        assertEquals(((NationalElectionsResult) servant.getNationalResults()).getWinner(),
+                ((NationalElectionsResult) restored.getNationalResults()).getWinner());
+        assertResultsEqual(servant, restored);
+    }
+
+    @Test
+    public void testAuditorsAreRestored() throws IOException, InvalidElectionStateException {
+        List<Vote> notified = new CopyOnWriteArrayList<>();
+        PartyVoteHandler handler = new PartyVoteHandler() {
+            @Override
+            public void onPartyVote(Vote vote) {
+                notified.add(vote);
+            }
+        };
+        UnicastRemoteObject.exportObject(handler, 0);
+        try {
+            Servant servant = createServant();
+            try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant);
+                 Checkpointer checkpointer = new Checkpointer(journal, journalPath, snapshotPath, null, servant)) {
+                servant.setJournal(journal);
+                servant.registerAuditOfficer(Party.TIGER, 1000, handler);
+                servant.openElection();
+                checkpointer.checkpoint();
+            }
+
+            ElectionSnapshot snapshot = ElectionSnapshot.read(snapshotPath);
+            assertEquals(1, snapshot.getAuditorsCount());
+
+            Servant restored = createServant();
+            restored.restore(snapshot);
+            restored.restoreAuditors(snapshot.getAuditors());
+            restored.emitVotes(Collections.singletonList(new Vote(Province.TUNDRA, 1000, Party.TIGER,
+                    Collections.singletonMap(Party.TIGER, 5L), Collections.singletonList(Party.TIGER))));
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (notified.isEmpty() && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals(1, notified.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            UnicastRemoteObject.unexportObject(handler, true);
+        }
+    }
+
+    @Test
+    public void testRegistrationIsSavedBeforeReturning() throws IOException, InvalidElectionStateException {
+        PartyVoteHandler handler = vote -> { };
+        UnicastRemoteObject.exportObject(handler, 0);
+        try {
+            Servant servant = createServant();
+            try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant);
+                 Checkpointer checkpointer = new Checkpointer(journal, journalPath, snapshotPath, null, servant)) {
+                servant.setJournal(journal);
+                servant.setCheckpointer(checkpointer);
+                servant.registerAuditOfficer(Party.OWL, 1001, handler);
+
+                // Without waiting for a periodic snapshot
+                ElectionSnapshot snapshot = ElectionSnapshot.read(snapshotPath);
+                assertNotNull(snapshot);
+                assertEquals(1, snapshot.getAuditorsCount());
+            }
+        } finally {
+            UnicastRemoteObject.unexportObject(handler, true);
+        }
+    }
+
+    @Test
+    public void testEvictedAuditorsAreNotSaved() throws IOException, InvalidElectionStateException, InterruptedException {
+        PartyVoteHandler failing = new PartyVoteHandler() {
+            @Override
+            public void onPartyVote(Vote vote) throws RemoteException {
+                throw new RemoteException("Officer is gone");
+            }
+        };
+        UnicastRemoteObject.exportObject(failing, 0);
+        try {
+            Servant servant = createServant();
+            try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant);
+                 Checkpointer checkpointer = new Checkpointer(journal, journalPath, snapshotPath, null, servant)) {
+                servant.setJournal(journal);
+                servant.registerAuditOfficer(Party.TIGER, 1000, failing);
+                servant.openElection();
+                checkpointer.checkpoint();
+                assertEquals(1, ElectionSnapshot.read(snapshotPath).getAuditorsCount());
+
+                // Every failed notification counts towards the eviction
+                long deadline = System.currentTimeMillis() + 5000;
+                while (servant.getAuditDispatcher().getEvicted() == 0 && System.currentTimeMillis() < deadline) {
+                    servant.emitVotes(Collections.singletonList(new Vote(Province.TUNDRA, 1000, Party.TIGER,
+                            Collections.singletonMap(Party.TIGER, 5L), Collections.singletonList(Party.TIGER))));
+                    Thread.sleep(60);
+                }
+                assertEquals(1, servant.getAuditDispatcher().getEvicted());
+
+                checkpointer.checkpoint();
+                assertEquals(0, ElectionSnapshot.read(snapshotPath).getAuditorsCount());
+            }
+        } finally {
+            UnicastRemoteObject.unexportObject(failing, true);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testCorruptSnapshot() throws IOException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(journalPath, servant, servant)) {
+            servant.setJournal(journal);
+            servant.registerTables(Collections.singletonMap(1000, Province.TUNDRA));
+            new Checkpointer(journal, journalPath, snapshotPath, null, servant).close();
+        } catch (InvalidElectionStateException e) {
+            fail();
+        }
+        byte[] bytes = Files.readAllBytes(snapshotPath);
+        bytes[10] ^= 1;
+        Files.write(snapshotPath, bytes);
+        ElectionSnapshot.read(snapshotPath);
+    }
+
+    private Servant createServant() {
+        Servant servant = new Servant();
+        servants.add(servant);
+        return servant;
+    }
+
+    private static void assertResultsEqual(Servant expected, Servant actual) throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        assertEquals(resultsOf(expected.getTableResults(1000)), resultsOf(actual.getTableResults(1000)));
+        assertEquals(resultsOf(expected.getTableResults(1001)), resultsOf(actual.getTableResults(1001)));
+        assertEquals(((NationalElectionsResult) expected.getProvisionalNationalResults()).getScoringRoundResults(),
+                ((NationalElectionsResult) actual.getProvisionalNationalResults()).getScoringRoundResults());
+        for (Province province : new Province[]{Province.TUNDRA, Province.JUNGLE}) {
+            StateElectionsResult expectedResults = (StateElectionsResult) expected.getProvisionalProvinceResults(province);
+            StateElectionsResult actualResults = (StateElectionsResult) actual.getProvisionalProvinceResults(province);
+            assertArrayEquals(expectedResults.getWinners(), actualResults.getWinners());
+        }
+    }
+
+    private static String resultsOf(ElectionResults results) {
+        FPTPResult fptpResult = (FPTPResult) results;
+        StringBuilder builder = new StringBuilder();
+        for (Party party : Party.values()) {
+            builder.append(party).append('=').append(fptpResult.getPercentage(party)).append(' ');
+        }
+        return builder.toString();
+    }
+
+    private static List<Vote> createVotes(int first, int quantity) {
+        Party[] parties = Party.values();
+        List<Vote> votes = new ArrayList<>();
+        for (int i = first; i < first + quantity; i++) {
+            Map<Party, Long> starVote = new EnumMap<>(Party.class);
+            starVote.put(parties[i % parties.length], (long) (i % 6));
+            starVote.put(parties[(i + 3) % parties.length], 5L);
+            Province province = i % 2 == 0 ? Province.TUNDRA : Province.JUNGLE;
+            votes.add(new Vote(province, 1000 + i % 2, parties[i % parties.length], starVote,
+                    Arrays.asList(parties[(i + 1) % parties.length], parties[(i + 2) % parties.length], parties[i % parties.length])));
+        }
+        return votes;
+    }
+}
@@ -0,0 +1,31 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.server.models.FptpAggregates;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class FptpAggregatesTest {
+    @Test
+    public void testProvinceAndNationalVotes() {
+        FptpAggregates aggregates = new FptpAggregates();
+        aggregates.emitVote(Province.JUNGLE, Party.TIGER);
+        aggregates.emitVote(Province.JUNGLE, Party.TIGER);
+        aggregates.emitVote(Province.TUNDRA, Party.OWL);
+
+        long[] jungle = new long[Party.values().length];
+        jungle[Party.TIGER.ordinal()] = 2;
+        long[] tundra = new long[Party.values().length];
+        tundra[Party.OWL.ordinal()] = 1;
+        long[] national = new long[Party.values().length];
+        national[Party.TIGER.ordinal()] = 2;
+        national[Party.OWL.ordinal()] = 1;
+
+        assertArrayEquals(jungle, aggregates.getProvinceVotes(Province.JUNGLE));
+        assertArrayEquals(tundra, aggregates.getProvinceVotes(Province.TUNDRA));
+        assertArrayEquals(new long[Party.values().length], aggregates.getProvinceVotes(Province.SAVANNAH));
+        assertArrayEquals(national, aggregates.getNationalVotes());
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.Test;
 import java.util.*;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class NationalElectionsResultsTest {
     private static NationalElection nationalElection;
@@ -31,6 +32,86 @@ public class NationalElectionsResultsTest {
         System.out.println(nationalElection.getSortedAutomaticRunoffResults());
     }
     
+    @Test
+    public void testRepeatedBallots() {
+        for (int i = 0; i < 1000; i++) {
+            this.ballots.forEach(v -> nationalElection.emitVote(v));
+        }
+
+        nationalElection.computeNationalElectionResults();
+
+        assertEquals(Party.JACKALOPE, nationalElection.getNationalElectionWinner());
+        assertEquals(Long.valueOf(9000), nationalElection.getSortedScoringRoundResults().first().getValue());
+    }
+
+    @Test
+    public void testSinglePartyVoted() {
+        Map<Party, Long> ballot = new HashMap<>();
+        ballot.put(Party.OWL, 3L);
+        nationalElection.emitVote(ballot);
+        nationalElection.emitVote(new HashMap<>());
+
+        nationalElection.computeNationalElectionResults();
+
+        assertEquals(Party.OWL, nationalElection.getNationalElectionWinner());
+        assertEquals(Double.valueOf(100.0), nationalElection.getSortedAutomaticRunoffResults().first().getValue());
+    }
+
+    @Test
+    public void testOnlyZeroScores() {
+        Map<Party, Long> ballot = new HashMap<>();
+        ballot.put(Party.OWL, 0L);
+        ballot.put(Party.LYNX, 0L);
+        nationalElection.emitVote(ballot);
+
+        nationalElection.computeNationalElectionResults();
+
+        assertNull(nationalElection.getNationalElectionWinner());
+    }
+
+    @Test
+    public void testMatchesBallotByBallotCount() {
+        Random random = new Random(42);
+        List<Map<Party, Long>> randomBallots = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Map<Party, Long> ballot = new HashMap<>();
+            for (Party party : Party.values()) {
+                if (random.nextInt(3) == 0) ballot.put(party, (long) random.nextInt(6));
+            }
+            randomBallots.add(ballot);
+            nationalElection.emitVote(ballot);
+        }
+        nationalElection.computeNationalElectionResults();
+
+        // Scoring round, adding up every ballot
+        Map<Party, Long> scores = new HashMap<>();
+        randomBallots.forEach(b -> b.forEach((party, score) -> scores.merge(party, score, Long::sum)));
+        for (Map.Entry<Party, Long> result : nationalElection.getSortedScoringRoundResults()) {
+            assertEquals(scores.get(result.getKey()), result.getValue());
+        }
+        assertEquals(scores.size(), nationalElection.getSortedScoringRoundResults().size());
+
+        // Automatic runoff, checking the winner of every ballot
+        List<Party> finalists = new ArrayList<>();
+        nationalElection.getSortedScoringRoundResults().stream().limit(2).forEach(e -> finalists.add(e.getKey()));
+        Party first = finalists.get(0), second = finalists.get(1);
+        long firstVotes = 0, secondVotes = 0;
+        for (Map<Party, Long> ballot : randomBallots) {
+            long firstScore = ballot.getOrDefault(first, 0L), secondScore = ballot.getOrDefault(second, 0L);
+            if (firstScore == 0 && secondScore == 0) continue;
+            boolean firstWins = firstScore > secondScore
+                    || (firstScore == secondScore && first.getDescription().compareTo(second.getDescription()) < 0);
+            if (firstWins) firstVotes++; else secondVotes++;
+        }
+        double total = firstVotes + secondVotes;
+        for (Map.Entry<Party, Double> result : nationalElection.getSortedAutomaticRunoffResults()) {
+            long expected = result.getKey() == first ? firstVotes : secondVotes;
+            assertEquals(expected / total * 100.0, result.getValue(), 1e-9);
+        }
+        assertEquals(firstVotes >= secondVotes ? first : second, nationalElection.getNationalElectionWinner());
+        assertEquals(5000L, nationalElection.getBallotCounts().values().stream().mapToLong(Long::longValue).sum());
+    }
+
     private List<Map<Party, Long>> createBallots() {
         Map<Party, Long> ballot1 = new HashMap<>();
         ballot1.put(Party.TIGER, 2L);
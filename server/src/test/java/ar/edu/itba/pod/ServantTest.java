@@ -0,0 +1,180 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.exceptions.InsufficientWinnersException;
+import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
+import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
+import ar.edu.itba.pod.models.*;
+import ar.edu.itba.pod.server.Servant;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.rmi.RemoteException;
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class ServantTest {
+    private Servant servant;
+
+    @Before
+    public void setUp() {
+        servant = new Servant();
+    }
+
+    @Test
+    public void testEmitVotesRejectedWhenPending() throws RemoteException {
+        List<VoteResult> results = servant.emitVotes(createVotes(3));
+        assertEquals(Collections.nCopies(3, VoteResult.REJECTED), results);
+    }
+
+    @Test
+    public void testEmitVotesKeepsInvalidWhenPending() throws RemoteException {
+        List<Vote> votes = createVotes(3);
+        votes.set(1, new Vote(Province.JUNGLE, 1000, null, Collections.singletonMap(Party.OWL, 1L), Collections.singletonList(Party.OWL)));
+
+        List<VoteResult> results = servant.emitVotes(votes);
+        assertEquals(Arrays.asList(VoteResult.REJECTED, VoteResult.INVALID, VoteResult.REJECTED), results);
+    }
+
+    @Test
+    public void testEmitVotesAccepted() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.openElection();
+        List<VoteResult> results = servant.emitVotes(createVotes(4));
+        assertEquals(Collections.nCopies(4, VoteResult.ACCEPTED), results);
+
+        FPTPResult tableResult = (FPTPResult) servant.getTableResults(1000);
+        assertEquals(Party.TIGER, tableResult.getWinner());
+    }
+
+    @Test
+    public void testEmitVotesWithInvalidVotes() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.openElection();
+        List<Vote> votes = createVotes(4);
+        // Score out of range, and missing FPTP vote
+        votes.set(1, new Vote(Province.JUNGLE, 1000, Party.OWL, Collections.singletonMap(Party.OWL, 6L), Collections.singletonList(Party.OWL)));
+        votes.set(2, new Vote(Province.JUNGLE, 1001, null, Collections.singletonMap(Party.OWL, 1L), Collections.singletonList(Party.OWL)));
+
+        List<VoteResult> results = servant.emitVotes(votes);
+        assertEquals(Arrays.asList(VoteResult.ACCEPTED, VoteResult.INVALID, VoteResult.INVALID, VoteResult.ACCEPTED), results);
+
+        // Only the valid votes were applied
+        ServerMetrics metrics = servant.getMetrics();
+        assertEquals(2, metrics.getAcceptedVotes());
+        assertEquals(2, metrics.getRejectedVotes());
+        assertEquals(2, metrics.getRetainedBallots());
+        assertEquals(100.0, ((FPTPResult) servant.getTableResults(1000)).getPercentage(Party.TIGER), 0.0);
+    }
+
+    @Test(expected = InvalidElectionStateException.class)
+    public void testRegisterTablesAfterOpen() throws RemoteException, InvalidElectionStateException {
+        servant.openElection();
+        servant.registerTables(Collections.singletonMap(1000, Province.JUNGLE));
+    }
+
+    @Test
+    public void testRegisteredTableKeepsProvince() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        servant.registerTables(Collections.singletonMap(1000, Province.TUNDRA));
+        servant.openElection();
+        servant.emitVotes(createVotes(1));
+
+        assertEquals(ElectionState.OPEN, ((FPTPResult) servant.getProvinceResults(Province.TUNDRA)).getElectionState());
+    }
+
+    @Test
+    public void testProvisionalNationalResults() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.openElection();
+        servant.emitVotes(createVotes(4));
+
+        NationalElectionsResult provisional = (NationalElectionsResult) servant.getProvisionalNationalResults();
+        assertEquals(Party.TIGER, provisional.getWinner());
+        assertEquals(Long.valueOf(20), provisional.getScoringRoundResults().first().getValue());
+
+        servant.closeElection();
+        NationalElectionsResult results = (NationalElectionsResult) servant.getProvisionalNationalResults();
+        assertEquals(provisional.getWinner(), results.getWinner());
+        assertEquals(provisional.getScoringRoundResults().first(), results.getScoringRoundResults().first());
+    }
+
+    @Test(expected = InsufficientWinnersException.class)
+    public void testProvisionalProvinceResultsInsufficientWinners() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException, InsufficientWinnersException {
+        servant.openElection();
+        servant.emitVotes(createVotes(4));
+
+        // Only two parties are approved on the ballots
+        servant.getProvisionalProvinceResults(Province.JUNGLE);
+    }
+
+    @Test(expected = InvalidElectionStateException.class)
+    public void testProvisionalResultsWhenPending() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.getProvisionalNationalResults();
+    }
+
+    @Test
+    public void testClosedResultsAreCached() throws IOException, ClassNotFoundException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.openElection();
+        servant.emitVotes(createVotes(4));
+        servant.closeElection();
+
+        ElectionResults results = servant.getNationalResults();
+        assertSame(results, servant.getNationalResults());
+
+        // Serializing as RMI would, the cached results are read back as they were
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(results);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            NationalElectionsResult read = (NationalElectionsResult) in.readObject();
+            assertEquals(Party.TIGER, read.getWinner());
+            assertEquals(((NationalElectionsResult) results).getScoringRoundResults(), read.getScoringRoundResults());
+        }
+
+        FPTPResult tableResult = (FPTPResult) servant.getTableResults(1000);
+        assertEquals(ElectionState.CLOSED, tableResult.getElectionState());
+        assertSame(tableResult, servant.getTableResults(1000));
+    }
+
+    @Test(expected = NoVotesRegisteredException.class)
+    public void testClosedRegisteredTableWithoutVotes() throws RemoteException, InvalidElectionStateException, NoVotesRegisteredException {
+        servant.registerTables(Collections.singletonMap(2000, Province.TUNDRA));
+        servant.openElection();
+        servant.emitVotes(createVotes(1));
+        servant.closeElection();
+        servant.getTableResults(2000);
+    }
+
+    @Test
+    public void testMetrics() throws RemoteException, InvalidElectionStateException {
+        servant.emitVotes(createVotes(2));
+        servant.openElection();
+        servant.emitVotes(createVotes(4));
+        servant.emitVotes(createVotes(4));
+        servant.closeElection();
+
+        ServerMetrics metrics = servant.getMetrics();
+        assertEquals(ElectionState.CLOSED, metrics.getElectionState());
+        assertEquals(8, metrics.getAcceptedVotes());
+        assertEquals(2, metrics.getRejectedVotes());
+        assertEquals(3, metrics.getEmitVotesLatency().getCount());
+        assertEquals(0, metrics.getEmitVoteLatency().getCount());
+        assertEquals(2, metrics.getStateLockAcquisitions());
+        assertEquals(2, metrics.getTables());
+        assertEquals(8, metrics.getRetainedBallots());
+        assertEquals(1, metrics.getDistinctBallots());
+        assertTrue(metrics.getCloseMillis() >= 0);
+    }
+
+    private static List<Vote> createVotes(int quantity) {
+        List<Vote> votes = new ArrayList<>();
+        for (int i = 0; i < quantity; i++) {
+            Map<Party, Long> starVote = new HashMap<>();
+            starVote.put(Party.TIGER, 5L);
+            starVote.put(Party.OWL, 2L);
+            votes.add(new Vote(Province.JUNGLE, 1000 + i % 2, Party.TIGER, starVote, Arrays.asList(Party.TIGER, Party.OWL)));
+        }
+        return votes;
+    }
+}
@@ -0,0 +1,27 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.ServerMetrics;
+import ar.edu.itba.pod.server.metrics.ServerTelemetry;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ServerTelemetryTest {
+
+    @Test
+    public void testPollsDoNotResetTheRate() throws InterruptedException {
+        ServerTelemetry telemetry = new ServerTelemetry();
+        telemetry.votesAccepted(1000);
+        Thread.sleep(1100);
+
+        ServerMetrics first = new ServerMetrics();
+        telemetry.fill(first);
+        assertTrue(first.getVotesPerSecond() > 0);
+
+        // Another client polling right after gets the rate of the same window
+        ServerMetrics second = new ServerMetrics();
+        telemetry.fill(second);
+        assertEquals(first.getVotesPerSecond(), second.getVotesPerSecond(), 0.0);
+    }
+}
@@ -0,0 +1,39 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.server.models.StarBallot;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class StarBallotTest {
+
+    @Test
+    public void testPackScores() {
+        Map<Party, Long> vote = new HashMap<>();
+        vote.put(Party.TIGER, 5L);
+        vote.put(Party.OWL, 0L);
+        vote.put(Party.BUFFALO, 3L);
+        int ballot = StarBallot.pack(vote);
+
+        for (Party party : Party.values()) {
+            assertEquals(vote.containsKey(party), StarBallot.isVoted(ballot, party));
+            assertEquals(vote.getOrDefault(party, 0L).longValue(), StarBallot.score(ballot, party));
+        }
+    }
+
+    @Test
+    public void testEmptyBallot() {
+        assertEquals(0, StarBallot.pack(new HashMap<>()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidScore() {
+        Map<Party, Long> vote = new HashMap<>();
+        vote.put(Party.LYNX, 6L);
+        StarBallot.pack(vote);
+    }
+}
@@ -84,6 +84,20 @@ public class StateElectionTest {
         assertEquals(new Double(0.0), firstRound.get(Party.BUFFALO));
     }
 
+    @Test
+    public void testRepeatedBallots() {
+        StateElection repeatedElection = new StateElection();
+        for (int i = 0; i < 1000; i++) {
+            for (List<Party> v : ballots) repeatedElection.emitVote(province, v);
+        }
+        repeatedElection.computeStateElectionResults();
+
+        assertEquals(1000L * votes, repeatedElection.getVotesQuantity());
+        assertArrayEquals(stateElection.getWinners(province), repeatedElection.getWinners(province));
+        assertEquals(new Double(3000.0), repeatedElection.getResultsRound(province, Round.FIRST).get(Party.TIGER));
+        assertEquals(1000 * ((1/(double)3)+(1/(double)2)), repeatedElection.getResultsRound(province, Round.THIRD).get(Party.OWL), 1e-9);
+    }
+
     private static void createBallots(List<List<Party>> ballots) {
 
         List<Party> ballot1 = new ArrayList<>();
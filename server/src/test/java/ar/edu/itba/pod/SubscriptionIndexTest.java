@@ -0,0 +1,42 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Party;
+import ar.edu.itba.pod.server.concurrency.AuditDispatcher;
+import ar.edu.itba.pod.server.concurrency.AuditSubscriber;
+import ar.edu.itba.pod.server.concurrency.SubscriptionIndex;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.*;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNull;
+
+public class SubscriptionIndexTest {
+    private final AuditDispatcher dispatcher = new AuditDispatcher();
+
+    @After
+    public void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    public void testLookup() {
+        AuditSubscriber first = dispatcher.subscribe(vote -> { });
+        AuditSubscriber second = dispatcher.subscribe(vote -> { });
+
+        Map<Party, Map<Integer, List<AuditSubscriber>>> subscriptions = new HashMap<>();
+        subscriptions.computeIfAbsent(Party.TIGER, p -> new HashMap<>()).put(1005, Arrays.asList(first, second));
+        subscriptions.computeIfAbsent(Party.TIGER, p -> new HashMap<>()).put(-3, Collections.singletonList(second));
+        subscriptions.computeIfAbsent(Party.OWL, p -> new HashMap<>()).put(1000, Collections.singletonList(first));
+        SubscriptionIndex index = SubscriptionIndex.build(subscriptions);
+
+        assertArrayEquals(new AuditSubscriber[]{first, second}, index.get(Party.TIGER, 1005));
+        assertArrayEquals(new AuditSubscriber[]{second}, index.get(Party.TIGER, -3));
+        assertArrayEquals(new AuditSubscriber[]{first}, index.get(Party.OWL, 1000));
+        assertNull(index.get(Party.TIGER, 1000));
+        assertNull(index.get(Party.LYNX, 1000));
+        assertNull(index.get(null, 1000));
+        assertNull(SubscriptionIndex.EMPTY.get(Party.TIGER, 1005));
+    }
+}
@@ -0,0 +1,76 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.models.Province;
+import ar.edu.itba.pod.server.models.Table;
+import ar.edu.itba.pod.server.models.TableRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class TableRegistryTest {
+
+    private TableRegistry registry;
+
+    @Before
+    public void setUp() {
+        registry = new TableRegistry();
+    }
+
+    @Test
+    public void testCreatedOnFirstVote() {
+        assertNull(registry.get(1000));
+        Table table = registry.getOrCreate(1000, Province.JUNGLE);
+        assertSame(table, registry.get(1000));
+        assertSame(table, registry.getOrCreate(1000, Province.TUNDRA));
+        assertEquals(Province.JUNGLE, table.getProvince());
+        assertEquals(1, registry.size());
+    }
+
+    @Test
+    public void testRegisteredCatalogue() {
+        Map<Integer, Province> catalogue = new HashMap<>();
+        for (int id = 1000; id < 2000; id++) {
+            catalogue.put(id, Province.values()[id % Province.values().length]);
+        }
+        registry.getOrCreate(5000, Province.SAVANNAH);
+        registry.registerAll(catalogue);
+
+        assertEquals(1001, registry.size());
+        assertEquals(Province.values()[1500 % Province.values().length], registry.get(1500).getProvince());
+        assertSame(registry.get(1500), registry.getOrCreate(1500, Province.JUNGLE));
+        assertNotNull(registry.get(5000));
+        assertNull(registry.get(999));
+        assertEquals(1001, registry.stream().map(Table::getID).collect(Collectors.toSet()).size());
+    }
+
+    @Test
+    public void testFewTablesInLargeRange() {
+        Map<Integer, Province> catalogue = new HashMap<>();
+        catalogue.put(0, Province.JUNGLE);
+        catalogue.put(4_000_000, Province.TUNDRA);
+        registry.registerAll(catalogue);
+
+        assertEquals(Province.JUNGLE, registry.get(0).getProvince());
+        assertEquals(Province.TUNDRA, registry.get(4_000_000).getProvince());
+        assertNull(registry.get(2_000_000));
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void testSparseCatalogue() {
+        Map<Integer, Province> catalogue = new HashMap<>();
+        catalogue.put(Integer.MIN_VALUE, Province.JUNGLE);
+        catalogue.put(Integer.MAX_VALUE, Province.TUNDRA);
+        registry.registerAll(catalogue);
+
+        assertEquals(Province.JUNGLE, registry.get(Integer.MIN_VALUE).getProvince());
+        assertEquals(Province.TUNDRA, registry.get(Integer.MAX_VALUE).getProvince());
+        assertNull(registry.get(0));
+        assertEquals(2, registry.size());
+    }
+}
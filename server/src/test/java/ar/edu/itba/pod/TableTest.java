@@ -8,10 +8,7 @@ import org.apache.commons.lang3.tuple.MutablePair;
 import org.junit.Before;
 import org.junit.Test;
 
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
-import java.util.TreeSet;
+import java.util.*;
 
 import static org.junit.Assert.assertEquals;
 
@@ -30,6 +27,24 @@ public class TableTest {
         table.emitVote(Party.BUFFALO);
         assertEquals(1, table.getVotes(Party.BUFFALO));
     }
+
+    @Test
+    public void testConcurrentEmitVote() throws InterruptedException {
+        final int threads = 8, votesPerThread = 10000;
+        List<Thread> emitters = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread emitter = new Thread(() -> {
+                for (int v = 0; v < votesPerThread; v++) table.emitVote(Party.values()[v % Party.values().length]);
+            });
+            emitters.add(emitter);
+            emitter.start();
+        }
+        for (Thread emitter : emitters) emitter.join();
+
+        long[] votes = table.getVotes();
+        assertEquals(threads * votesPerThread, Arrays.stream(votes).sum());
+        assertEquals(table.getVotes(Party.TIGER), votes[Party.TIGER.ordinal()]);
+    }
     //TODO: Fix me, this test method does not work
     /*@Test
     public void testQueryResults() throws NoVotesRegisteredException {
@@ -0,0 +1,57 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.server.concurrency.VoteGate;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class VoteGateTest {
+    private static final int THREADS = 8;
+
+    @Test
+    public void testClosedUntilOpened() {
+        VoteGate gate = new VoteGate();
+        assertFalse(gate.enter());
+        gate.open();
+        assertTrue(gate.enter());
+        gate.exit();
+        gate.closeAndDrain();
+        assertFalse(gate.enter());
+    }
+
+    @Test
+    public void testNoVoteAppliedAfterClose() throws InterruptedException {
+        VoteGate gate = new VoteGate();
+        AtomicLong applied = new AtomicLong();
+        gate.open();
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                while (gate.enter()) {
+                    try {
+                        applied.incrementAndGet();
+                    } finally {
+                        gate.exit();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        Thread.sleep(50);
+        gate.closeAndDrain();
+        long appliedAtClose = applied.get();
+
+        for (Thread thread : threads) thread.join();
+        assertTrue(appliedAtClose > 0);
+        assertEquals(appliedAtClose, applied.get());
+    }
+}
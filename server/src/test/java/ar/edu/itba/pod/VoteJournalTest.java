@@ -0,0 +1,242 @@
+package ar.edu.itba.pod;
+
+import ar.edu.itba.pod.exceptions.InvalidElectionStateException;
+import ar.edu.itba.pod.exceptions.NoVotesRegisteredException;
+import ar.edu.itba.pod.models.*;
+import ar.edu.itba.pod.server.Servant;
+import ar.edu.itba.pod.server.journal.VoteJournal;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.rmi.RemoteException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class VoteJournalTest {
+    private Path path;
+    private final List<Servant> servants = new ArrayList<>();
+
+    @Before
+    public void setUp() throws IOException {
+        path = Files.createTempFile("votes", ".journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        servants.forEach(servant -> servant.getAuditDispatcher().shutdown());
+        Files.deleteIfExists(path);
+    }
+
+    @Test
+    public void testReplayRebuildsTheElection() throws IOException, InvalidElectionStateException, NoVotesRegisteredException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.registerTables(Collections.singletonMap(1000, Province.TUNDRA));
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 10));
+            servant.emitVotes(createVotes(10, 5));
+        }
+
+        Servant replayed = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, replayed, replayed)) {
+            replayed.setJournal(journal);
+            assertEquals(ElectionState.OPEN, replayed.getElectionState());
+            assertEquals(15, replayed.getMetrics().getAcceptedVotes());
+            assertTablesEqual(servant, replayed);
+
+            // Closing after the replay is written to the journal as well
+            replayed.closeElection();
+        }
+
+        Servant closed = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, closed, closed)) {
+            assertEquals(ElectionState.CLOSED, closed.getElectionState());
+            assertEquals(((NationalElectionsResult) replayed.getNationalResults()).getScoringRoundResults(),
+                    ((NationalElectionsResult) closed.getNationalResults()).getScoringRoundResults());
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsDropped() throws IOException, InvalidElectionStateException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 4));
+        }
+        long complete = Files.size(path);
+        // A record cut in the middle of being written
+        Files.write(path, new byte[]{0, 0, 0, 50, 1, 2, 3, 4, 3, 0}, StandardOpenOption.APPEND);
+
+        Servant replayed = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, replayed, replayed)) {
+            replayed.setJournal(journal);
+            assertEquals(complete, Files.size(path));
+            assertEquals(4, replayed.getMetrics().getAcceptedVotes());
+            replayed.emitVotes(createVotes(4, 2));
+        }
+
+        Servant again = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, again, again)) {
+            assertEquals(6, again.getMetrics().getAcceptedVotes());
+        }
+    }
+
+    @Test
+    public void testCutRecordFollowedByZerosIsDropped() throws IOException, InvalidElectionStateException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 4));
+        }
+        long complete = Files.size(path);
+        // A complete header whose payload and the records after it never reached the disk
+        byte[] cut = new byte[32];
+        cut[3] = 4;
+        Files.write(path, cut, StandardOpenOption.APPEND);
+
+        Servant replayed = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, replayed, replayed)) {
+            assertEquals(complete, Files.size(path));
+            assertEquals(4, replayed.getMetrics().getAcceptedVotes());
+        }
+    }
+
+    @Test
+    public void testCorruptRecordBeforeTheEndFails() throws IOException, InvalidElectionStateException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 4));
+            servant.emitVotes(createVotes(4, 4));
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        // A byte of the payload of the first batch, after the open record
+        bytes[9 + 8 + 2] ^= 1;
+        Files.write(path, bytes);
+
+        Servant replayed = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, replayed, replayed)) {
+            fail();
+        } catch (IOException e) {
+            // The acknowledged votes after it are kept
+            assertEquals(bytes.length, Files.size(path));
+        }
+    }
+
+    @Test
+    public void testConcurrentVotesAreAllDurable() throws Exception {
+        Servant servant = createServant();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+
+            List<Future<List<VoteResult>>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                final int first = i * 10;
+                results.add(executor.submit(() -> servant.emitVotes(createVotes(first, 10))));
+            }
+            for (Future<List<VoteResult>> result : results) {
+                assertEquals(Collections.nCopies(10, VoteResult.ACCEPTED), result.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        Servant replayed = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, replayed, replayed)) {
+            assertEquals(2000, replayed.getMetrics().getAcceptedVotes());
+            assertTablesEqual(servant, replayed);
+        }
+    }
+
+    @Test
+    public void testReplayOfBatchWithInvalidVotes() throws IOException, InvalidElectionStateException, NoVotesRegisteredException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            List<Vote> votes = createVotes(0, 6);
+            votes.set(2, new Vote(Province.TUNDRA, 1000, Party.OWL, Collections.singletonMap(Party.OWL, 9L), Collections.singletonList(Party.OWL)));
+            votes.set(4, new Vote(Province.TUNDRA, 1001, Party.OWL, Collections.singletonMap(Party.OWL, 1L), null));
+            servant.emitVotes(votes);
+        }
+
+        Servant replayed = createServant();
+        try (VoteJournal ignored = VoteJournal.open(path, replayed, replayed)) {
+            assertEquals(4, replayed.getMetrics().getAcceptedVotes());
+            assertEquals(servant.getMetrics().getRetainedBallots(), replayed.getMetrics().getRetainedBallots());
+            assertTablesEqual(servant, replayed);
+        }
+    }
+
+    @Test
+    public void testVotesAreNotAppliedWhenTheJournalFails() throws IOException, InvalidElectionStateException {
+        Servant servant = createServant();
+        try (VoteJournal journal = VoteJournal.open(path, servant, servant)) {
+            servant.setJournal(journal);
+            servant.openElection();
+            servant.emitVotes(createVotes(0, 3));
+        }
+
+        // The journal is closed, so the batch can not be written
+        List<Vote> votes = createVotes(3, 3);
+        Vote vote = votes.get(0);
+        votes.set(0, new Vote(vote.getProvince(), 2000, vote.getFptpVote(), vote.getStarVote(), vote.getSpavVote()));
+        try {
+            servant.emitVotes(votes);
+            fail();
+        } catch (RemoteException e) {
+            // Neither the votes nor the new table were kept
+            assertEquals(3, servant.getMetrics().getRetainedBallots());
+            assertEquals(3, servant.getMetrics().getTables());
+        }
+    }
+
+    private Servant createServant() {
+        Servant servant = new Servant();
+        servants.add(servant);
+        return servant;
+    }
+
+    private static void assertTablesEqual(Servant expected, Servant actual) throws IOException, InvalidElectionStateException, NoVotesRegisteredException {
+        for (int table = 1000; table < 1003; table++) {
+            FPTPResult expectedResult = (FPTPResult) expected.getTableResults(table);
+            FPTPResult actualResult = (FPTPResult) actual.getTableResults(table);
+            double[] expectedPercentages = new double[Party.values().length];
+            double[] actualPercentages = new double[Party.values().length];
+            for (Party party : Party.values()) {
+                expectedPercentages[party.ordinal()] = expectedResult.getPercentage(party);
+                actualPercentages[party.ordinal()] = actualResult.getPercentage(party);
+            }
+            assertEquals(Arrays.toString(expectedPercentages), Arrays.toString(actualPercentages));
+        }
+    }
+
+    private static List<Vote> createVotes(int first, int quantity) {
+        Party[] parties = Party.values();
+        List<Vote> votes = new ArrayList<>();
+        for (int i = first; i < first + quantity; i++) {
+            Map<Party, Long> starVote = new EnumMap<>(Party.class);
+            starVote.put(parties[i % parties.length], (long) (i % 6));
+            starVote.put(parties[(i + 3) % parties.length], 5L);
+            votes.add(new Vote(Province.TUNDRA, 1000 + i % 3, parties[i % parties.length], starVote,
+                    Arrays.asList(parties[(i + 1) % parties.length], parties[(i + 2) % parties.length])));
+        }
+        return votes;
+    }
+}